@@ -1,18 +1,29 @@
 package auth;
 
 import database.JsonDatabaseManager;
+import database.Transaction;
 import model.*;
 import utils.IdGenerator;
-import utils.PasswordUtils;
 import utils.ValidationUtils;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+
 public class AuthService {
     private static AuthService instance;
     private final JsonDatabaseManager db;
-    private User currentUser;
+    private final SessionManager sessions;
+    private final PasswordHasher hasher;
+    private final LoginThrottle throttle;
+    // Session of the desktop client; server callers pass their own tokens
+    private volatile Session localSession;
 
     private AuthService() {
         db = JsonDatabaseManager.getInstance();
+        sessions = new SessionManager(SessionManager.getIdleTimeoutMillis(), SessionManager.getMaxSessions());
+        hasher = PasswordHasher.fromSystemProperties();
+        throttle = LoginThrottle.fromSystemProperties();
     }
 
     public static synchronized AuthService getInstance() {
@@ -24,92 +35,231 @@ public class AuthService {
 
     public AuthResult signup(String username, String email, String password,
                              String confirmPassword, Role role) {
+        return await(signupAsync(username, email, password, confirmPassword, role));
+    }
+
+    // Hashing runs on the hashing pool; the future completes there, so UI
+    // callers must hop back to the EDT before touching components
+    public CompletableFuture<AuthResult> signupAsync(String username, String email, String password,
+                                                     String confirmPassword, Role role) {
         String validationError = ValidationUtils.validateSignup(username, email, password, confirmPassword);
         if (validationError != null) {
-            return new AuthResult(false, validationError, null);
+            return CompletableFuture.completedFuture(new AuthResult(false, validationError, null));
         }
 
         if (db.emailExists(email)) {
-            return new AuthResult(false, "Email already registered", null);
+            return CompletableFuture.completedFuture(new AuthResult(false, "Email already registered", null));
         }
 
-        String passwordHash = PasswordUtils.hashPassword(password);
-        String userId = IdGenerator.generateUserId();
+        return hasher.hash(password).thenApply(passwordHash -> {
+            String userId = IdGenerator.generateUserId();
 
-        User newUser;
-        switch (role) {
-            case INSTRUCTOR -> newUser = new Instructor(userId, username, email, passwordHash);
-            case ADMIN -> newUser = new Admin(userId, username, email, passwordHash);
-            default -> newUser = new Student(userId, username, email, passwordHash);
-        }
+            User newUser;
+            switch (role) {
+                case INSTRUCTOR -> newUser = new Instructor(userId, username, email, passwordHash);
+                case ADMIN -> newUser = new Admin(userId, username, email, passwordHash);
+                default -> newUser = new Student(userId, username, email, passwordHash);
+            }
 
-        db.addUser(newUser);
-        this.currentUser = newUser;
-        return new AuthResult(true, "Registration successful", newUser);
+            if (!db.addUser(newUser)) {
+                return new AuthResult(false, "Email already registered", null);
+            }
+            throttle.forgetMissing(email);
+            return bindLocal(new AuthResult(true, "Registration successful", newUser));
+        });
     }
 
+    // Desktop login: the authenticated user becomes getCurrentUser()
     public AuthResult login(String email, String password) {
+        return await(loginAsync(email, password));
+    }
+
+    public CompletableFuture<AuthResult> loginAsync(String email, String password) {
+        return authenticate(email, password, null).thenApply(this::bindLocal);
+    }
+
+    // Server login: opens an independent session and leaves the desktop
+    // session untouched. The token on the result identifies the caller
+    // afterwards; source (e.g. the client address) is throttled on its own
+    public AuthResult createSession(String email, String password, String source) {
+        AuthResult result = await(authenticate(email, password, source));
+        if (!result.isSuccess()) return result;
+        Session session = sessions.create(result.getUser(), false);
+        if (session == null) {
+            return new AuthResult(false, "Too many active sessions, try again later", null);
+        }
+        return new AuthResult(true, result.getMessage(), result.getUser(), session.getToken());
+    }
+
+    // Cheapest checks first: throttling and the missing-email cache are map
+    // lookups, the user lookup is an index probe, and only then is a hash run
+    private CompletableFuture<AuthResult> authenticate(String email, String password, String source) {
         String validationError = ValidationUtils.validateLogin(email, password);
         if (validationError != null) {
-            return new AuthResult(false, validationError, null);
+            return CompletableFuture.completedFuture(new AuthResult(false, validationError, null));
         }
 
+        if (!throttle.tryAcquire(email, source)) {
+            return CompletableFuture.completedFuture(
+                    AuthResult.retryLater("Too many login attempts, please wait and try again"));
+        }
+
+        if (throttle.isKnownMissing(email)) {
+            return CompletableFuture.completedFuture(new AuthResult(false, "Email not found", null));
+        }
         User user = db.findUserByEmail(email);
         if (user == null) {
-            return new AuthResult(false, "Email not found", null);
+            throttle.recordMissing(email);
+            return CompletableFuture.completedFuture(new AuthResult(false, "Email not found", null));
+        }
+
+        return hasher.verify(password, user.getPasswordHash()).thenApply(verification -> {
+            if (!verification.isValid()) {
+                return new AuthResult(false, "Incorrect password", null);
+            }
+            if (verification.getUpgradedHash() != null) {
+                upgradeHash(user, verification.getUpgradedHash());
+            }
+            return new AuthResult(true, "Login successful", user);
+        });
+    }
+
+    // Replaces a legacy or under-cost hash after a successful login. Failing
+    // to save it is not a login failure; the next login tries again
+    private void upgradeHash(User user, String newHash) {
+        synchronized (user) {
+            try {
+                Transaction tx = db.beginTransaction().stageUser(user);
+                user.setPasswordHash(newHash);
+                tx.commit();
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    private static AuthResult await(CompletableFuture<AuthResult> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RejectedExecutionException) {
+                return AuthResult.retryLater(describeFailure(e));
+            }
+            throw e;
         }
+    }
 
-        if (!PasswordUtils.verifyPassword(password, user.getPasswordHash())) {
-            return new AuthResult(false, "Incorrect password", null);
+    // User-facing message for an async login/signup that completed exceptionally
+    public static String describeFailure(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (cause instanceof RejectedExecutionException) {
+            return "Too many sign-ins in progress, please try again";
         }
+        cause.printStackTrace();
+        return "Sign-in failed, please try again";
+    }
 
-        this.currentUser = user;
-        return new AuthResult(true, "Login successful", user);
+    private AuthResult bindLocal(AuthResult result) {
+        if (!result.isSuccess()) return result;
+        logout();
+        Session session = sessions.create(result.getUser(), true);
+        localSession = session;
+        return new AuthResult(true, result.getMessage(), result.getUser(), session.getToken());
     }
 
     public void logout() {
-        this.currentUser = null;
+        Session session = localSession;
+        localSession = null;
+        if (session != null) sessions.invalidate(session.getToken());
+    }
+
+    public void logout(String token) {
+        sessions.invalidate(token);
     }
 
     public User getCurrentUser() {
-        return currentUser;
+        Session session = localSession;
+        return session != null ? session.getUser() : null;
+    }
+
+    // User behind a server session token, or null if unknown or idle-expired
+    public User getSessionUser(String token) {
+        Session session = sessions.get(token);
+        return session != null ? session.getUser() : null;
+    }
+
+    public Session getSession(String token) {
+        return sessions.get(token);
+    }
+
+    public int getActiveSessionCount() {
+        return sessions.size();
     }
 
     public boolean isLoggedIn() {
-        return currentUser != null;
+        return getCurrentUser() != null;
     }
 
     public boolean isStudent() {
-        return currentUser instanceof Student;
+        return getCurrentUser() instanceof Student;
     }
 
     public boolean isInstructor() {
-        return currentUser instanceof Instructor;
+        return getCurrentUser() instanceof Instructor;
     }
 
     public boolean isAdmin() {
-        return currentUser instanceof Admin;
+        return getCurrentUser() instanceof Admin;
     }
 
     public void refreshCurrentUser() {
-        if (currentUser != null) {
-            currentUser = db.findUserById(currentUser.getUserId());
-        }
+        refresh(localSession);
+    }
+
+    public User refreshSession(String token) {
+        Session session = sessions.get(token);
+        refresh(session);
+        return session != null ? session.getUser() : null;
+    }
+
+    private void refresh(Session session) {
+        if (session == null) return;
+        User latest = db.findUserById(session.getUserId());
+        if (latest != null) session.setUser(latest);
     }
 
     public static class AuthResult {
         private final boolean success;
         private final String message;
         private final User user;
+        private final String sessionToken;
+        private final boolean retryable;
 
         public AuthResult(boolean success, String message, User user) {
+            this(success, message, user, null);
+        }
+
+        public AuthResult(boolean success, String message, User user, String sessionToken) {
+            this(success, message, user, sessionToken, false);
+        }
+
+        private AuthResult(boolean success, String message, User user, String sessionToken, boolean retryable) {
             this.success = success;
             this.message = message;
             this.user = user;
+            this.sessionToken = sessionToken;
+            this.retryable = retryable;
+        }
+
+        // Refused because of load or throttling rather than bad credentials
+        static AuthResult retryLater(String message) {
+            return new AuthResult(false, message, null, null, true);
         }
 
         public boolean isSuccess() { return success; }
         public String getMessage() { return message; }
         public User getUser() { return user; }
+        public String getSessionToken() { return sessionToken; }
+        public boolean isRetryable() { return retryable; }
     }
 }
\ No newline at end of file
@@ -0,0 +1,128 @@
+package auth;
+
+import utils.ValidationUtils;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Token buckets keyed by email and by request source, plus a short-lived
+// record of emails that had no account. All checks are map lookups, so
+// abusive traffic is turned away before any user lookup or key derivation.
+// Each map is an LRU capped at maxEntries: inserting past the cap drops the
+// least recently used entry, so memory stays bounded without any scan
+public class LoginThrottle {
+    private final Map<String, Bucket> emailBuckets;
+    private final Map<String, Bucket> sourceBuckets;
+    private final Map<String, Long> missingEmails;
+    private final int emailBurst;
+    private final double emailRefillPerNano;
+    private final int sourceBurst;
+    private final double sourceRefillPerNano;
+    private final long missingTtlNanos;
+
+    public LoginThrottle(int emailBurst, int emailRefillPerMinute, int sourceBurst, int sourceRefillPerMinute,
+                         long missingTtlMillis, int maxEntries) {
+        this.emailBurst = Math.max(1, emailBurst);
+        this.emailRefillPerNano = Math.max(1, emailRefillPerMinute) / 60e9;
+        this.sourceBurst = Math.max(1, sourceBurst);
+        this.sourceRefillPerNano = Math.max(1, sourceRefillPerMinute) / 60e9;
+        this.missingTtlNanos = Math.max(0, missingTtlMillis) * 1_000_000L;
+        int cap = Math.max(16, maxEntries);
+        emailBuckets = lru(cap);
+        sourceBuckets = lru(cap);
+        missingEmails = lru(cap);
+    }
+
+    public static LoginThrottle fromSystemProperties() {
+        return new LoginThrottle(
+                Integer.getInteger("skillforge.login.emailBurst", 5),
+                Integer.getInteger("skillforge.login.emailRefillPerMin", 6),
+                Integer.getInteger("skillforge.login.sourceBurst", 30),
+                Integer.getInteger("skillforge.login.sourceRefillPerMin", 60),
+                Long.getLong("skillforge.login.missingEmailTtlMs", 60_000L),
+                Integer.getInteger("skillforge.login.maxTracked", 100_000));
+    }
+
+    // Takes one token from each bucket; false means the attempt is throttled.
+    // A null source (the desktop client) is only limited per email
+    public boolean tryAcquire(String email, String source) {
+        long now = System.nanoTime();
+        if (source != null && !bucket(sourceBuckets, source, sourceBurst, sourceRefillPerNano, now).tryTake(now)) {
+            return false;
+        }
+        return bucket(emailBuckets, key(email), emailBurst, emailRefillPerNano, now).tryTake(now);
+    }
+
+    public boolean isKnownMissing(String email) {
+        String key = key(email);
+        Long expiresAt = missingEmails.get(key);
+        if (expiresAt == null) return false;
+        if (System.nanoTime() - expiresAt > 0) {
+            missingEmails.remove(key, expiresAt);
+            return false;
+        }
+        return true;
+    }
+
+    public void recordMissing(String email) {
+        if (missingTtlNanos == 0) return;
+        missingEmails.put(key(email), System.nanoTime() + missingTtlNanos);
+    }
+
+    // Called when an account is created so the new email is not reported
+    // missing for the rest of the TTL
+    public void forgetMissing(String email) {
+        missingEmails.remove(key(email));
+    }
+
+    int trackedCount() {
+        return emailBuckets.size() + sourceBuckets.size() + missingEmails.size();
+    }
+
+    private static Bucket bucket(Map<String, Bucket> buckets, String key, int burst, double refillPerNano, long now) {
+        return buckets.computeIfAbsent(key, k -> new Bucket(burst, refillPerNano, now));
+    }
+
+    // Access-ordered, so lookups keep active keys young and the eldest entry
+    // is the one idle the longest
+    private static <V> Map<String, V> lru(int maxEntries) {
+        return Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, V> eldest) {
+                return size() > maxEntries;
+            }
+        });
+    }
+
+    // Same normalization as the user email index
+    private static String key(String email) {
+        return ValidationUtils.normalizeEmail(email);
+    }
+
+    private static class Bucket {
+        private final int capacity;
+        private final double refillPerNano;
+        private double tokens;
+        private long lastRefill;
+
+        Bucket(int capacity, double refillPerNano, long now) {
+            this.capacity = capacity;
+            this.refillPerNano = refillPerNano;
+            this.tokens = capacity;
+            this.lastRefill = now;
+        }
+
+        synchronized boolean tryTake(long now) {
+            refill(now);
+            if (tokens < 1) return false;
+            tokens -= 1;
+            return true;
+        }
+
+        private void refill(long now) {
+            tokens = Math.min(capacity, tokens + (now - lastRefill) * refillPerNano);
+            lastRefill = now;
+        }
+    }
+}
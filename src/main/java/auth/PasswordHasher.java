@@ -0,0 +1,77 @@
+package auth;
+
+import utils.PasswordUtils;
+
+import java.util.concurrent.*;
+
+// Runs key derivation on its own small pool. The pool has one thread per core
+// and a bounded queue, so a login burst gets a quick "busy" answer instead of
+// eating the request threads or the EDT
+public class PasswordHasher {
+    private final ThreadPoolExecutor executor;
+
+    public PasswordHasher(int threads, int queueCapacity) {
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)), r -> {
+                    Thread t = new Thread(r, "skillforge-hashing");
+                    t.setDaemon(true);
+                    return t;
+                }, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    public static PasswordHasher fromSystemProperties() {
+        int cores = Runtime.getRuntime().availableProcessors();
+        return new PasswordHasher(Integer.getInteger("skillforge.hashing.threads", cores),
+                Integer.getInteger("skillforge.hashing.queue", cores * 16));
+    }
+
+    public CompletableFuture<String> hash(String password) {
+        return submit(() -> PasswordUtils.hashPassword(password));
+    }
+
+    // Completes with an invalid Verification when the password is wrong;
+    // otherwise with a valid one whose upgraded hash is set only if the
+    // current hash is legacy or too cheap
+    public CompletableFuture<Verification> verify(String password, String storedHash) {
+        return submit(() -> {
+            if (!PasswordUtils.verifyPassword(password, storedHash)) {
+                return new Verification(false, null);
+            }
+            String upgraded = PasswordUtils.needsRehash(storedHash) ? PasswordUtils.hashPassword(password) : null;
+            return new Verification(true, upgraded);
+        });
+    }
+
+    public int getQueueDepth() {
+        return executor.getQueue().size();
+    }
+
+    private <T> CompletableFuture<T> submit(Callable<T> task) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                try {
+                    future.complete(task.call());
+                } catch (Throwable t) {
+                    future.completeExceptionally(t);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    public static class Verification {
+        private final boolean valid;
+        private final String upgradedHash;
+
+        Verification(boolean valid, String upgradedHash) {
+            this.valid = valid;
+            this.upgradedHash = upgradedHash;
+        }
+
+        public boolean isValid() { return valid; }
+        public String getUpgradedHash() { return upgradedHash; }
+    }
+}
@@ -0,0 +1,38 @@
+package auth;
+
+import model.User;
+
+public class Session {
+    private final String token;
+    private final String userId;
+    private final long createdAt;
+    private final boolean pinned;
+    private volatile User user;
+    private volatile long lastAccessAt;
+
+    Session(String token, User user, boolean pinned) {
+        this.token = token;
+        this.userId = user.getUserId();
+        this.user = user;
+        this.pinned = pinned;
+        this.createdAt = System.currentTimeMillis();
+        this.lastAccessAt = createdAt;
+    }
+
+    public String getToken() { return token; }
+    public String getUserId() { return userId; }
+    public User getUser() { return user; }
+    public long getCreatedAt() { return createdAt; }
+    public long getLastAccessAt() { return lastAccessAt; }
+
+    // Pinned sessions belong to the desktop client and never idle out
+    public boolean isPinned() { return pinned; }
+
+    void setUser(User user) { this.user = user; }
+
+    void touch() { lastAccessAt = System.currentTimeMillis(); }
+
+    boolean isExpired(long now, long idleTimeoutMillis) {
+        return !pinned && now - lastAccessAt > idleTimeoutMillis;
+    }
+}
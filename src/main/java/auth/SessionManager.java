@@ -0,0 +1,103 @@
+package auth;
+
+import model.User;
+
+import java.security.SecureRandom;
+import java.util.*;
+import java.util.concurrent.*;
+
+public class SessionManager {
+    private static final int TOKEN_BYTES = 32;
+
+    private final Map<String, Session> sessions = new ConcurrentHashMap<>();
+    private final SecureRandom random = new SecureRandom();
+    private final Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+    private final long idleTimeoutMillis;
+    private final int maxSessions;
+    private final ScheduledExecutorService sweeper;
+
+    public SessionManager(long idleTimeoutMillis, int maxSessions) {
+        this.idleTimeoutMillis = Math.max(1, idleTimeoutMillis);
+        this.maxSessions = Math.max(1, maxSessions);
+        this.sweeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "skillforge-session-sweeper");
+            t.setDaemon(true);
+            return t;
+        });
+        long period = Math.max(1000, this.idleTimeoutMillis / 4);
+        sweeper.scheduleAtFixedRate(this::sweep, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    public static long getIdleTimeoutMillis() {
+        return Long.getLong("skillforge.session.idleMs", 30 * 60 * 1000L);
+    }
+
+    public static int getMaxSessions() {
+        return Integer.getInteger("skillforge.session.max", 10000);
+    }
+
+    // Returns null when the table is full of sessions that cannot be evicted
+    public Session create(User user, boolean pinned) {
+        if (sessions.size() >= maxSessions) {
+            sweep();
+            if (sessions.size() >= maxSessions && !evictLeastRecentlyUsed()) {
+                return null;
+            }
+        }
+        Session session = new Session(newToken(), user, pinned);
+        sessions.put(session.getToken(), session);
+        return session;
+    }
+
+    // Looks up a live session and records the access; expired sessions are
+    // removed on the spot rather than waiting for the sweeper
+    public Session get(String token) {
+        if (token == null) return null;
+        Session session = sessions.get(token);
+        if (session == null) return null;
+        if (session.isExpired(System.currentTimeMillis(), idleTimeoutMillis)) {
+            sessions.remove(token, session);
+            return null;
+        }
+        session.touch();
+        return session;
+    }
+
+    public void invalidate(String token) {
+        if (token != null) sessions.remove(token);
+    }
+
+    public void invalidateUser(String userId) {
+        sessions.values().removeIf(s -> s.getUserId().equals(userId));
+    }
+
+    public int size() {
+        return sessions.size();
+    }
+
+    public void sweep() {
+        long now = System.currentTimeMillis();
+        sessions.values().removeIf(s -> s.isExpired(now, idleTimeoutMillis));
+    }
+
+    public void shutdown() {
+        sweeper.shutdownNow();
+    }
+
+    private boolean evictLeastRecentlyUsed() {
+        Session oldest = null;
+        for (Session s : sessions.values()) {
+            if (s.isPinned()) continue;
+            if (oldest == null || s.getLastAccessAt() < oldest.getLastAccessAt()) {
+                oldest = s;
+            }
+        }
+        return oldest != null && sessions.remove(oldest.getToken(), oldest);
+    }
+
+    private String newToken() {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        return encoder.encodeToString(bytes);
+    }
+}
@@ -0,0 +1,354 @@
+package database;
+
+import model.*;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+
+// Compact startup snapshot: a header with the generation and the enum name
+// tables, then one length-prefixed record per user and per course. Timestamps
+// are stored as epoch seconds (UTC) and enums as ordinals into the header tables.
+class BinarySnapshot {
+    private static final int MAGIC = 0x53464253; // "SFBS"
+    private static final int VERSION = 2;
+    private static final long NO_TIME = Long.MIN_VALUE;
+
+    static class Contents {
+        final long generation;
+        final List<User> users;
+        final List<Course> courses;
+
+        Contents(long generation, List<User> users, List<Course> courses) {
+            this.generation = generation;
+            this.users = users;
+            this.courses = courses;
+        }
+    }
+
+    private BinarySnapshot() {}
+
+    static void write(Path target, List<User> users, List<Course> courses, long generation) throws IOException {
+        Path temp = Files.createTempFile(target.toAbsolutePath().getParent(), target.getFileName().toString(), ".tmp");
+        try {
+            try (FileOutputStream fos = new FileOutputStream(temp.toFile());
+                 DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fos, 64 * 1024))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeLong(generation);
+                writeEnumTable(out, Role.values());
+                writeEnumTable(out, ApprovalStatus.values());
+
+                ByteArrayOutputStream recordBytes = new ByteArrayOutputStream(512);
+                DataOutputStream record = new DataOutputStream(recordBytes);
+
+                out.writeInt(users.size());
+                for (User u : users) {
+                    recordBytes.reset();
+                    writeUser(record, u);
+                    out.writeInt(recordBytes.size());
+                    recordBytes.writeTo(out);
+                }
+                out.writeInt(courses.size());
+                for (Course c : courses) {
+                    recordBytes.reset();
+                    writeCourse(record, c);
+                    out.writeInt(recordBytes.size());
+                    recordBytes.writeTo(out);
+                }
+                out.flush();
+                fos.getFD().sync();
+            }
+            try {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    // Reads only the header
+    static long readGeneration(Path source) throws IOException {
+        try (DataInputStream in = new DataInputStream(Files.newInputStream(source))) {
+            checkHeader(in, source);
+            return in.readLong();
+        }
+    }
+
+    static Contents read(Path source) throws IOException {
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(source), 64 * 1024))) {
+            checkHeader(in, source);
+            long generation = in.readLong();
+            Role[] roles = readEnumTable(in, Role.class);
+            ApprovalStatus[] statuses = readEnumTable(in, ApprovalStatus.class);
+
+            int userCount = in.readInt();
+            List<User> users = new ArrayList<>(userCount);
+            for (int i = 0; i < userCount; i++) {
+                in.readInt(); // record length, only needed by readers that skip records
+                users.add(readUser(in, roles));
+            }
+            int courseCount = in.readInt();
+            List<Course> courses = new ArrayList<>(courseCount);
+            for (int i = 0; i < courseCount; i++) {
+                in.readInt();
+                courses.add(readCourse(in, statuses));
+            }
+            return new Contents(generation, users, courses);
+        }
+    }
+
+    // The snapshot is only a cache of the JSON files, so a file in any other
+    // format is rejected and rebuilt rather than converted
+    private static void checkHeader(DataInputStream in, Path source) throws IOException {
+        if (in.readInt() != MAGIC) throw new IOException("Not a SkillForge snapshot: " + source);
+        int version = in.readInt();
+        if (version != VERSION) throw new IOException("Unsupported snapshot version " + version);
+    }
+
+    private static void writeUser(DataOutputStream out, User u) throws IOException {
+        out.writeByte(u.getRole().ordinal());
+        writeString(out, u.getUserId());
+        writeString(out, u.getUsername());
+        writeString(out, u.getEmail());
+        writeString(out, u.getPasswordHash());
+        writeTime(out, u.getCreatedAt());
+        writeStrings(out, u.getEnrolledCourses());
+
+        Map<String, CourseProgress> progress = u.getProgress();
+        out.writeInt(progress.size());
+        for (Map.Entry<String, CourseProgress> e : progress.entrySet()) {
+            writeString(out, e.getKey());
+            writeStrings(out, e.getValue().getCompletedLessons());
+            writeString(out, e.getValue().getCurrentLessonId());
+        }
+
+        out.writeInt(u.getQuizAttempts().size());
+        for (QuizAttempt a : u.getQuizAttempts()) {
+            writeString(out, a.getLessonId());
+            writeString(out, a.getCourseId());
+            out.writeInt(a.getScore());
+            out.writeBoolean(a.isPassed());
+            writeTime(out, a.getAttemptDate());
+        }
+
+        out.writeInt(u.getCertificates().size());
+        for (Certificate c : u.getCertificates()) {
+            writeString(out, c.getCertificateId());
+            writeString(out, c.getStudentId());
+            writeString(out, c.getCourseId());
+            writeString(out, c.getCourseTitle());
+            writeString(out, c.getStudentName());
+            writeTime(out, c.getIssueDate());
+        }
+
+        if (u instanceof Instructor) {
+            writeStrings(out, ((Instructor) u).getCreatedCourses());
+        }
+    }
+
+    private static User readUser(DataInputStream in, Role[] roles) throws IOException {
+        Role role = roles[in.readUnsignedByte()];
+        User user;
+        switch (role) {
+            case ADMIN -> user = new Admin();
+            case INSTRUCTOR -> user = new Instructor();
+            default -> user = new Student();
+        }
+        user.setRole(role);
+        user.setUserId(readString(in));
+        user.setUsername(readString(in));
+        user.setEmail(readString(in));
+        user.setPasswordHash(readString(in));
+        user.setCreatedAt(readTime(in));
+        user.setEnrolledCourses(readStrings(in));
+
+        int progressCount = in.readInt();
+        Map<String, CourseProgress> progress = new HashMap<>(Math.max(4, progressCount * 2));
+        for (int i = 0; i < progressCount; i++) {
+            String courseId = readString(in);
+            CourseProgress cp = new CourseProgress();
+            cp.setCompletedLessons(readStrings(in));
+            cp.setCurrentLessonId(readString(in));
+            progress.put(courseId, cp);
+        }
+        user.setProgress(progress);
+
+        int attemptCount = in.readInt();
+        List<QuizAttempt> attempts = new ArrayList<>(attemptCount);
+        for (int i = 0; i < attemptCount; i++) {
+            QuizAttempt a = new QuizAttempt();
+            a.setLessonId(readString(in));
+            a.setCourseId(readString(in));
+            a.setScore(in.readInt());
+            a.setPassed(in.readBoolean());
+            a.setAttemptDate(readTime(in));
+            attempts.add(a);
+        }
+        user.setQuizAttempts(attempts);
+
+        int certCount = in.readInt();
+        List<Certificate> certificates = new ArrayList<>(certCount);
+        for (int i = 0; i < certCount; i++) {
+            Certificate c = new Certificate();
+            c.setCertificateId(readString(in));
+            c.setStudentId(readString(in));
+            c.setCourseId(readString(in));
+            c.setCourseTitle(readString(in));
+            c.setStudentName(readString(in));
+            c.setIssueDate(readTime(in));
+            certificates.add(c);
+        }
+        user.setCertificates(certificates);
+
+        if (user instanceof Instructor) {
+            ((Instructor) user).setCreatedCourses(readStrings(in));
+        }
+        return user;
+    }
+
+    private static void writeCourse(DataOutputStream out, Course c) throws IOException {
+        writeString(out, c.getCourseId());
+        writeString(out, c.getTitle());
+        writeString(out, c.getDescription());
+        writeString(out, c.getInstructorId());
+        out.writeByte(c.getApprovalStatus().ordinal());
+        writeTime(out, c.getCreatedAt());
+        writeStrings(out, c.getStudents());
+
+        out.writeInt(c.getLessons().size());
+        for (Lesson l : c.getLessons()) {
+            writeString(out, l.getLessonId());
+            writeString(out, l.getTitle());
+            writeString(out, l.viewContent());
+            writeStrings(out, l.viewResources());
+            Quiz quiz = l.getQuiz();
+            out.writeBoolean(quiz != null);
+            if (quiz != null) {
+                writeString(out, quiz.getQuizId());
+                out.writeInt(quiz.getPassingScore());
+                List<Question> questions = quiz.viewQuestions();
+                out.writeInt(questions.size());
+                for (Question q : questions) {
+                    writeString(out, q.getQuestionId());
+                    writeString(out, q.getQuestionText());
+                    writeStrings(out, q.getOptions());
+                    out.writeInt(q.getCorrectAnswerIndex());
+                }
+            }
+        }
+    }
+
+    private static Course readCourse(DataInputStream in, ApprovalStatus[] statuses) throws IOException {
+        Course c = new Course();
+        c.setCourseId(readString(in));
+        c.setTitle(readString(in));
+        c.setDescription(readString(in));
+        c.setInstructorId(readString(in));
+        c.setApprovalStatus(statuses[in.readUnsignedByte()]);
+        c.setCreatedAt(readTime(in));
+        c.setStudents(readStrings(in));
+
+        int lessonCount = in.readInt();
+        List<Lesson> lessons = new ArrayList<>(lessonCount);
+        for (int i = 0; i < lessonCount; i++) {
+            Lesson l = new Lesson();
+            l.setLessonId(readString(in));
+            l.setTitle(readString(in));
+            l.setContent(readString(in));
+            l.setResources(readStrings(in));
+            if (in.readBoolean()) {
+                Quiz quiz = new Quiz();
+                quiz.setQuizId(readString(in));
+                quiz.setPassingScore(in.readInt());
+                int questionCount = in.readInt();
+                List<Question> questions = new ArrayList<>(questionCount);
+                for (int j = 0; j < questionCount; j++) {
+                    Question q = new Question();
+                    q.setQuestionId(readString(in));
+                    q.setQuestionText(readString(in));
+                    q.setOptions(readStrings(in));
+                    q.setCorrectAnswerIndex(in.readInt());
+                    questions.add(q);
+                }
+                quiz.setQuestions(questions);
+                l.setQuiz(quiz);
+            }
+            lessons.add(l);
+        }
+        c.setLessons(lessons);
+        return c;
+    }
+
+    private static void writeEnumTable(DataOutputStream out, Enum<?>[] values) throws IOException {
+        out.writeByte(values.length);
+        for (Enum<?> v : values) {
+            writeString(out, v.name());
+        }
+    }
+
+    // Ordinals are resolved through the names written at save time, so
+    // reordering or appending enum constants does not corrupt old snapshots
+    private static <E extends Enum<E>> E[] readEnumTable(DataInputStream in, Class<E> type) throws IOException {
+        int n = in.readUnsignedByte();
+        @SuppressWarnings("unchecked")
+        E[] table = (E[]) java.lang.reflect.Array.newInstance(type, n);
+        for (int i = 0; i < n; i++) {
+            table[i] = Enum.valueOf(type, readString(in));
+        }
+        return table;
+    }
+
+    private static void writeString(DataOutputStream out, String s) throws IOException {
+        if (s == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int len = in.readInt();
+        if (len < 0) return null;
+        byte[] bytes = new byte[len];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeStrings(DataOutputStream out, List<String> list) throws IOException {
+        if (list == null) {
+            out.writeInt(0);
+            return;
+        }
+        out.writeInt(list.size());
+        for (String s : list) {
+            writeString(out, s);
+        }
+    }
+
+    private static List<String> readStrings(DataInputStream in) throws IOException {
+        int n = in.readInt();
+        List<String> list = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            list.add(readString(in));
+        }
+        return list;
+    }
+
+    private static void writeTime(DataOutputStream out, LocalDateTime time) throws IOException {
+        out.writeLong(time == null ? NO_TIME : time.toEpochSecond(ZoneOffset.UTC));
+    }
+
+    private static LocalDateTime readTime(DataInputStream in) throws IOException {
+        long seconds = in.readLong();
+        return seconds == NO_TIME ? null : LocalDateTime.ofEpochSecond(seconds, 0, ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,85 @@
+package database;
+
+import java.util.*;
+
+// Immutable list that shares structure with the list it was derived from.
+// Elements sit in chunks of CHUNK_SIZE (all full but the last), so replacing or
+// appending one copies that chunk and the array of chunk references, never the
+// elements of the other chunks. Removing one re-chunks everything after it.
+final class ChunkedList<T> extends AbstractList<T> implements RandomAccess {
+    private static final int SHIFT = 9;
+    static final int CHUNK_SIZE = 1 << SHIFT;
+    private static final int MASK = CHUNK_SIZE - 1;
+    private static final ChunkedList<?> EMPTY = new ChunkedList<>(new Object[0][], 0);
+
+    private final Object[][] chunks;
+    private final int size;
+
+    private ChunkedList(Object[][] chunks, int size) {
+        this.chunks = chunks;
+        this.size = size;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <T> ChunkedList<T> empty() {
+        return (ChunkedList<T>) EMPTY;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <T> ChunkedList<T> copyOf(Collection<? extends T> items) {
+        if (items instanceof ChunkedList) return (ChunkedList<T>) items;
+        return new ChunkedList<>(chunk(items.toArray(), new Object[0][]), items.size());
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T get(int index) {
+        Objects.checkIndex(index, size);
+        return (T) chunks[index >>> SHIFT][index & MASK];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    ChunkedList<T> with(int index, T value) {
+        Objects.checkIndex(index, size);
+        Object[][] spine = chunks.clone();
+        Object[] chunk = spine[index >>> SHIFT].clone();
+        chunk[index & MASK] = value;
+        spine[index >>> SHIFT] = chunk;
+        return new ChunkedList<>(spine, size);
+    }
+
+    ChunkedList<T> plus(T value) {
+        int last = size >>> SHIFT;
+        Object[][] spine = Arrays.copyOf(chunks, last + 1);
+        Object[] chunk = last < chunks.length ? Arrays.copyOf(chunks[last], chunks[last].length + 1) : new Object[1];
+        chunk[chunk.length - 1] = value;
+        spine[last] = chunk;
+        return new ChunkedList<>(spine, size + 1);
+    }
+
+    ChunkedList<T> without(int index) {
+        Objects.checkIndex(index, size);
+        int first = index >>> SHIFT;
+        int start = first << SHIFT;
+        Object[] rest = new Object[size - 1 - start];
+        for (int i = start, k = 0; i < size; i++) {
+            if (i != index) rest[k++] = get(i);
+        }
+        return new ChunkedList<>(chunk(rest, Arrays.copyOf(chunks, first)), size - 1);
+    }
+
+    // Appends items to the chunks in prefix, which must all be full
+    private static Object[][] chunk(Object[] items, Object[][] prefix) {
+        int count = (items.length + MASK) >>> SHIFT;
+        Object[][] spine = Arrays.copyOf(prefix, prefix.length + count);
+        for (int c = 0; c < count; c++) {
+            spine[prefix.length + c] = Arrays.copyOfRange(items, c << SHIFT,
+                    Math.min(items.length, (c + 1) << SHIFT));
+        }
+        return spine;
+    }
+}
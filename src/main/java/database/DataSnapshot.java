@@ -0,0 +1,43 @@
+package database;
+
+import model.Course;
+import model.User;
+
+import java.util.List;
+
+// The user and course lists as of one committed version. The lists are
+// unmodifiable and never change after publication, so membership and order
+// are stable. The entities are NOT isolated: they are the live objects the
+// store holds, and later writes change their contents in place. A reader that
+// needs one entity's fields to agree with each other holds its monitor while
+// reading them, as writers hold it while changing them.
+public final class DataSnapshot {
+    private final long version;
+    private final long coursesVersion;
+    private final List<User> users;
+    private final List<Course> courses;
+    private final List<User> userImages;
+    private final List<Course> courseImages;
+
+    // The store passes its persistent lists, which it replaces instead of changing
+    DataSnapshot(long version, long coursesVersion, ChunkedList<User> users, ChunkedList<Course> courses,
+                 ChunkedList<User> userImages, ChunkedList<Course> courseImages) {
+        this.version = version;
+        this.coursesVersion = coursesVersion;
+        this.users = users;
+        this.courses = courses;
+        this.userImages = userImages;
+        this.courseImages = courseImages;
+    }
+
+    public long getVersion() { return version; }
+    // The version of the last commit that changed a course
+    public long getCoursesVersion() { return coursesVersion; }
+    public List<User> getUsers() { return users; }
+    public List<Course> getCourses() { return courses; }
+
+    // The store's private copies of the same entities as of this version, which
+    // nothing changes; snapshot files are written from these
+    List<User> getUserImages() { return userImages; }
+    List<Course> getCourseImages() { return courseImages; }
+}
@@ -2,35 +2,107 @@ package database;
 
 import com.google.gson.*;
 import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
 import model.*;
+import utils.IdBlockAllocator;
+import utils.IdCodec;
 import utils.IdGenerator;
+import utils.ValidationUtils;
 
 import java.io.*;
 import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.*;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 public class JsonDatabaseManager {
     private static JsonDatabaseManager instance;
     private final Gson gson;
-    private List<User> users;
-    private List<Course> courses;
+    // Replaced, never changed, on every write, so a published snapshot can share them
+    private ChunkedList<User> users;
+    private ChunkedList<Course> courses;
+    // A private copy of every stored entity as of its last write, in the same
+    // position as the entity. Snapshot files are written from these, so a file
+    // write takes no entity monitor and never sees an edit in progress; the
+    // price is a second copy of each entity's fields and collections (lesson
+    // bodies are shared). Null while loading, when the loading thread is the
+    // only one touching the entities
+    private ChunkedList<User> userImages;
+    private ChunkedList<Course> courseImages;
     private Path usersFilePath;
     private Path coursesFilePath;
+    private Path binarySnapshotPath;
+    private MappedCourseCatalog catalog;
+    private QuizAttemptLog attemptLog;
+    private LessonBodyCache lessonBodyCache;
+    private final JsonStreamCodec codec;
+    private WriteAheadLog wal;
+    private PersistenceWriter writer;
+    private final Object snapshotWriteLock = new Object();
+    private Path dataDir;
+    private ShardedStore<User> userStore;
+    private ShardedStore<Course> courseStore;
+    private final Set<String> dirtyUserIds = new LinkedHashSet<>();
+    private final Set<String> dirtyCourseIds = new LinkedHashSet<>();
+    private final Set<String> deletedCourseIds = new LinkedHashSet<>();
+    private final Map<String, User> usersById = new ConcurrentHashMap<>();
+    private final Map<String, User> usersByEmail = new ConcurrentHashMap<>();
+    private final Map<String, String> indexedEmails = new HashMap<>();
+    private final Map<String, Course> coursesById = new ConcurrentHashMap<>();
+    private final Map<String, Set<String>> courseIdsByStudent = new HashMap<>();
+    private final Map<String, Set<String>> courseIdsByInstructor = new HashMap<>();
+    private final Map<ApprovalStatus, Set<String>> courseIdsByStatus = new EnumMap<>(ApprovalStatus.class);
+    private final Map<String, IndexedCourseKeys> indexedCourseKeys = new HashMap<>();
+    // Position of every stored entity in its list, so replacing or removing
+    // one never scans the list
+    private final Map<String, Integer> userPositions = new HashMap<>();
+    private final Map<String, Integer> coursePositions = new HashMap<>();
+    // Transactions hold the read side from applying a change until it is
+    // durable (or rolled back); a checkpoint takes the write side so it never
+    // snapshots a change that may still be undone
+    private final ReentrantReadWriteLock checkpointLock = new ReentrantReadWriteLock();
+    private long version;
+    // Version of the last commit that changed a course; courses.json is stamped
+    // with it so catalog.bin can tell whether the courses moved on. -1 when
+    // unknown (the sharded layout keeps no generations)
+    private long coursesVersion = -1;
+    private volatile DataSnapshot snapshot;
 
     private JsonDatabaseManager() {
-        gson = new GsonBuilder()
+        this(Paths.get(System.getProperty("user.home"), ".skillforge"));
+    }
+
+    // Opens the store in the given directory instead of ~/.skillforge
+    JsonDatabaseManager(Path dataDir) {
+        gson = createGson();
+        codec = new JsonStreamCodec(gson, StorageConfig.isPrettyPrintEnabled());
+        users = ChunkedList.empty();
+        courses = ChunkedList.empty();
+        initializeFilePaths(dataDir);
+        loadData();
+        if (StorageConfig.isAsyncWriteEnabled()) {
+            writer = new PersistenceWriter(this::persistDirty,
+                    StorageConfig.getAsyncCoalesceMillis(), StorageConfig.getAsyncMaxStalenessMillis());
+        }
+        if (wal != null || writer != null) {
+            Runtime.getRuntime().addShutdownHook(new Thread(this::shutdown, "skillforge-shutdown"));
+        }
+    }
+
+    static Gson createGson() {
+        return new GsonBuilder()
                 .registerTypeAdapter(LocalDateTime.class, new LocalDateTimeAdapter())
-                .registerTypeAdapter(User.class, new UserDeserializer())
-                .setPrettyPrinting()
+                .registerTypeAdapterFactory(new UserTypeAdapterFactory())
+                .registerTypeAdapterFactory(new LessonTypeAdapterFactory())
                 .create();
-        users = new ArrayList<>();
-        courses = new ArrayList<>();
-        initializeFilePaths();
-        loadData();
     }
 
     public static synchronized JsonDatabaseManager getInstance() {
@@ -40,9 +112,8 @@ public class JsonDatabaseManager {
         return instance;
     }
 
-    private void initializeFilePaths() {
-        String userHome = System.getProperty("user.home");
-        Path dataDir = Paths.get(userHome, ".skillforge");
+    private void initializeFilePaths(Path dataDir) {
+        this.dataDir = dataDir;
         try {
             Files.createDirectories(dataDir);
         } catch (IOException e) {
@@ -50,70 +121,487 @@ public class JsonDatabaseManager {
         }
         usersFilePath = dataDir.resolve("users.json");
         coursesFilePath = dataDir.resolve("courses.json");
+        binarySnapshotPath = dataDir.resolve("snapshot.bin");
+        if (StorageConfig.isWalEnabled()) {
+            wal = new WriteAheadLog(dataDir.resolve("journal.wal"),
+                    StorageConfig.getWalSyncBatchSize(), StorageConfig.getWalSyncIntervalMillis());
+        }
     }
 
     private void loadData() {
+        if (StorageConfig.isShardedLayout()) {
+            loadShards();
+            rebuildIndexes();
+        } else {
+            if (!loadBinarySnapshot()) {
+                loadUsers();
+                loadCourses();
+                version = Math.max(generationOf(usersFilePath), generationOf(coursesFilePath));
+            }
+            coursesVersion = generationOf(coursesFilePath);
+            rebuildIndexes();
+            replayWal();
+        }
+        initializeIdCounters();
+        if (StorageConfig.isMappedCatalogEnabled()) {
+            attachCatalog();
+        }
+        // Taken after the catalog has dropped the lesson bodies, so the copies hold none
+        userImages = ChunkedList.copyOf(users.stream().map(User::copyState).toList());
+        courseImages = ChunkedList.copyOf(courses.stream().map(Course::copyContents).toList());
+        snapshot = snapshotOf();
+        openAttemptLog();
+    }
+
+    // Quiz attempts live in their own log. Attempts still embedded in users
+    // from older files are moved there once: only when the log is first
+    // created, since a leftover after that means a migration was interrupted
+    // after the log was written but before the users were saved
+    private void openAttemptLog() {
+        Path logPath = dataDir.resolve("quiz-attempts.log");
+        boolean firstRun = !Files.exists(logPath);
+        try {
+            if (firstRun) {
+                Path temp = logPath.resolveSibling(logPath.getFileName() + ".tmp");
+                Files.deleteIfExists(temp);
+                try (QuizAttemptLog migrated = QuizAttemptLog.open(temp)) {
+                    for (User u : users) {
+                        if (u.getQuizAttempts() != null) {
+                            migrated.appendAll(u.getUserId(), u.getQuizAttempts());
+                        }
+                    }
+                }
+                Files.move(temp, logPath, StandardCopyOption.ATOMIC_MOVE);
+            }
+            attemptLog = QuizAttemptLog.open(logPath);
+        } catch (IOException | RuntimeException e) {
+            e.printStackTrace();
+            attemptLog = QuizAttemptLog.inMemory();
+            return;
+        }
+
+        Transaction tx = beginTransaction();
+        for (User u : users) {
+            if (u.getQuizAttempts() != null && !u.getQuizAttempts().isEmpty()) {
+                tx.stageUser(u);
+                u.setQuizAttempts(new ArrayList<>());
+            }
+        }
+        try {
+            tx.commit();
+        } catch (TransactionException e) {
+            e.printStackTrace();
+        }
+    }
+
+    public QuizAttemptLog getAttemptLog() {
+        return attemptLog;
+    }
+
+    // Maps catalog.bin, rebuilding it first only when it was written from older
+    // course data, and drops the lesson bodies from the heap. Lessons edited
+    // later are simply held in memory again until the next startup, when the
+    // newer courses generation makes the catalog stale.
+    private void attachCatalog() {
+        Path catalogPath = dataDir.resolve("catalog.bin");
+        try {
+            if (coursesVersion < 0 || catalogGeneration(catalogPath) != coursesVersion) {
+                MappedCourseCatalog.write(catalogPath, courses, coursesVersion);
+            }
+            catalog = MappedCourseCatalog.open(catalogPath);
+            lessonBodyCache = new LessonBodyCache(catalog, StorageConfig.getLessonCacheSize());
+            for (Course c : courses) {
+                for (Lesson l : c.getLessons()) {
+                    l.detachBody(lessonBodyCache);
+                }
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+            catalog = null;
+            lessonBodyCache = null;
+        }
+    }
+
+    private long catalogGeneration(Path catalogPath) {
+        if (!Files.exists(catalogPath)) return -1;
+        try {
+            return MappedCourseCatalog.readGeneration(catalogPath);
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    private void loadShards() {
+        ShardedStore<User> shardedUsers = new ShardedStore<>(dataDir.resolve("users"),
+                codec::readUser, codec::writeUser);
+        ShardedStore<Course> shardedCourses = new ShardedStore<>(dataDir.resolve("courses"),
+                codec::readCourse, codec::writeCourse);
+        try {
+            if (shardedUsers.exists() || shardedCourses.exists()) {
+                users = ChunkedList.copyOf(shardedUsers.loadAll());
+                courses = ChunkedList.copyOf(shardedCourses.loadAll());
+            } else {
+                migrateToShards(shardedUsers, shardedCourses);
+            }
+        } catch (IOException | JsonParseException e) {
+            e.printStackTrace();
+        }
+        userStore = shardedUsers;
+        courseStore = shardedCourses;
+        // Per-entity writes are already proportional to the change, so the journal is retired
+        wal = null;
+    }
+
+    // Loads the single-file layout (including any pending journal), writes every
+    // entity to its shard, then sets the old files aside as .bak
+    private void migrateToShards(ShardedStore<User> shardedUsers, ShardedStore<Course> shardedCourses)
+            throws IOException {
         loadUsers();
         loadCourses();
-        initializeIdCounters();
+        rebuildIndexes();
+        replayWal();
+        for (User u : users) {
+            shardedUsers.save(u.getUserId(), u);
+        }
+        for (Course c : courses) {
+            shardedCourses.save(c.getCourseId(), c);
+        }
+        moveAside(usersFilePath);
+        moveAside(coursesFilePath);
+        if (wal != null) {
+            wal.close();
+            wal.rotate();
+            wal.discardRotated();
+        }
+    }
+
+    private void moveAside(Path file) throws IOException {
+        if (Files.exists(file)) {
+            Files.move(file, file.resolveSibling(file.getFileName() + ".bak"),
+                    StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    // Called under the monitor (and the changed entities' monitors) after every
+    // mutation. Publishes the next snapshot right away. The lists are
+    // persistent, so this copies nothing: the write has already paid for the
+    // chunks it replaced
+    private void committed(boolean coursesChanged) {
+        version++;
+        if (coursesChanged) coursesVersion = version;
+        snapshot = snapshotOf();
+    }
+
+    private DataSnapshot snapshotOf() {
+        return new DataSnapshot(version, coursesVersion, users, courses,
+                userImages != null ? userImages : users, courseImages != null ? courseImages : courses);
+    }
+
+    // Only null while the initial load is still running, when it is built on
+    // every call because the load is still changing the lists
+    public DataSnapshot getSnapshot() {
+        DataSnapshot current = snapshot;
+        if (current != null) return current;
+        synchronized (this) {
+            return snapshot != null ? snapshot : snapshotOf();
+        }
+    }
+
+    private void rebuildIndexes() {
+        userPositions.clear();
+        coursePositions.clear();
+        for (int i = 0; i < users.size(); i++) {
+            userPositions.put(users.get(i).getUserId(), i);
+        }
+        for (int i = 0; i < courses.size(); i++) {
+            coursePositions.put(courses.get(i).getCourseId(), i);
+        }
+        usersById.clear();
+        usersByEmail.clear();
+        indexedEmails.clear();
+        coursesById.clear();
+        courseIdsByStudent.clear();
+        courseIdsByInstructor.clear();
+        courseIdsByStatus.clear();
+        indexedCourseKeys.clear();
+        for (User u : users) {
+            indexUser(u);
+        }
+        for (Course c : courses) {
+            indexCourse(c);
+        }
+    }
+
+    private void indexUser(User user) {
+        String oldEmail = indexedEmails.remove(user.getUserId());
+        if (oldEmail != null) {
+            usersByEmail.remove(oldEmail);
+        }
+        usersById.put(user.getUserId(), user);
+        if (user.getEmail() != null) {
+            String key = emailKey(user.getEmail());
+            usersByEmail.put(key, user);
+            indexedEmails.put(user.getUserId(), key);
+        }
+    }
+
+    private void unindexUser(String userId) {
+        usersById.remove(userId);
+        String oldEmail = indexedEmails.remove(userId);
+        if (oldEmail != null) {
+            usersByEmail.remove(oldEmail);
+        }
+    }
+
+    private void indexCourse(Course course) {
+        String courseId = course.getCourseId();
+        coursesById.put(courseId, course);
+
+        IndexedCourseKeys old = indexedCourseKeys.get(courseId);
+        IndexedCourseKeys now = new IndexedCourseKeys(course);
+        if (old == null || !Objects.equals(old.instructorId, now.instructorId)) {
+            if (old != null) removeKey(courseIdsByInstructor, old.instructorId, courseId);
+            addKey(courseIdsByInstructor, now.instructorId, courseId);
+        }
+        if (old == null || old.status != now.status) {
+            if (old != null) removeKey(courseIdsByStatus, old.status, courseId);
+            addKey(courseIdsByStatus, now.status, courseId);
+        }
+        if (old != null) {
+            for (String studentId : old.students) {
+                if (!now.students.contains(studentId)) removeKey(courseIdsByStudent, studentId, courseId);
+            }
+        }
+        for (String studentId : now.students) {
+            if (old == null || !old.students.contains(studentId)) addKey(courseIdsByStudent, studentId, courseId);
+        }
+        indexedCourseKeys.put(courseId, now);
+    }
+
+    private void unindexCourse(String courseId) {
+        coursesById.remove(courseId);
+        IndexedCourseKeys old = indexedCourseKeys.remove(courseId);
+        if (old != null) {
+            removeKey(courseIdsByInstructor, old.instructorId, courseId);
+            removeKey(courseIdsByStatus, old.status, courseId);
+            for (String studentId : old.students) {
+                removeKey(courseIdsByStudent, studentId, courseId);
+            }
+        }
+    }
+
+    private static <K> void addKey(Map<K, Set<String>> index, K key, String courseId) {
+        if (key == null) return;
+        index.computeIfAbsent(key, k -> new LinkedHashSet<>()).add(courseId);
+    }
+
+    private static <K> void removeKey(Map<K, Set<String>> index, K key, String courseId) {
+        if (key == null) return;
+        Set<String> ids = index.get(key);
+        if (ids != null) {
+            ids.remove(courseId);
+            if (ids.isEmpty()) index.remove(key);
+        }
+    }
+
+    private synchronized <K> List<Course> coursesFor(Map<K, Set<String>> index, K key) {
+        Set<String> ids = index.get(key);
+        if (ids == null) return new ArrayList<>();
+        List<Course> result = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            Course c = coursesById.get(id);
+            if (c != null) result.add(c);
+        }
+        return result;
+    }
+
+    private static String emailKey(String email) {
+        return ValidationUtils.normalizeEmail(email);
+    }
+
+    private void replayWal() {
+        if (wal == null) return;
+        try {
+            boolean[] coursesReplayed = {false};
+            int replayed = wal.replay(record -> {
+                if (!WriteAheadLog.USER_UPSERT.equals(record.getOp())) coursesReplayed[0] = true;
+                applyWalRecord(record);
+            });
+            if (replayed > 0) {
+                version++;
+                if (coursesReplayed[0]) coursesVersion = version;
+                checkpoint();
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    // Runs on the loading thread after the indexes are built, and keeps them
+    // current; there are no images yet
+    private void applyWalRecord(WriteAheadLog.Record record) {
+        switch (record.getOp()) {
+            case WriteAheadLog.USER_UPSERT -> {
+                User user = gson.fromJson(record.getData(), User.class);
+                putUser(user, null);
+                indexUser(user);
+            }
+            case WriteAheadLog.COURSE_UPSERT -> {
+                Course course = gson.fromJson(record.getData(), Course.class);
+                putCourse(course, null);
+                indexCourse(course);
+            }
+            case WriteAheadLog.COURSE_DELETE -> {
+                if (removeCourse(record.getId()) != null) unindexCourse(record.getId());
+            }
+            default -> System.err.println("Skipping unknown journal record: " + record.getOp());
+        }
+    }
+
+    // The list helpers below run under the monitor. put* stores the entity,
+    // and its image once loading is done, in the position of the one with the
+    // same id, or appends them, and returns the entity it replaced. Removal
+    // renumbers the entities after it, which is linear but keeps the list in
+    // insertion order; only deletes and rollbacks remove
+    private User putUser(User user, User image) {
+        Integer position = userPositions.get(user.getUserId());
+        if (position != null) {
+            User previous = users.get(position);
+            if (previous != user) users = users.with(position, user);
+            if (userImages != null) userImages = userImages.with(position, image);
+            return previous;
+        }
+        userPositions.put(user.getUserId(), users.size());
+        users = users.plus(user);
+        if (userImages != null) userImages = userImages.plus(image);
+        return null;
+    }
+
+    private User removeUser(String userId) {
+        Integer position = userPositions.remove(userId);
+        if (position == null) return null;
+        User removed = users.get(position);
+        users = users.without(position);
+        if (userImages != null) userImages = userImages.without(position);
+        for (int i = position; i < users.size(); i++) {
+            userPositions.put(users.get(i).getUserId(), i);
+        }
+        return removed;
+    }
+
+    private Course putCourse(Course course, Course image) {
+        Integer position = coursePositions.get(course.getCourseId());
+        if (position != null) {
+            Course previous = courses.get(position);
+            if (previous != course) courses = courses.with(position, course);
+            if (courseImages != null) courseImages = courseImages.with(position, image);
+            return previous;
+        }
+        coursePositions.put(course.getCourseId(), courses.size());
+        courses = courses.plus(course);
+        if (courseImages != null) courseImages = courseImages.plus(image);
+        return null;
+    }
+
+    private Course removeCourse(String courseId) {
+        Integer position = coursePositions.remove(courseId);
+        if (position == null) return null;
+        Course removed = courses.get(position);
+        courses = courses.without(position);
+        if (courseImages != null) courseImages = courseImages.without(position);
+        for (int i = position; i < courses.size(); i++) {
+            coursePositions.put(courses.get(i).getCourseId(), i);
+        }
+        return removed;
+    }
+
+    // Every snapshot file records the committed version it was written from
+    // (courses.json the last one that changed a course, which is never newer), and
+    // the binary snapshot is only trusted when its generation is at least that
+    // of both JSON files. Loading resumes the version counter from there so the
+    // next write is stamped higher than anything already on disk
+    private boolean loadBinarySnapshot() {
+        if (!StorageConfig.isBinarySnapshotEnabled() || !Files.exists(binarySnapshotPath)) return false;
+        try {
+            long snapshotGeneration = BinarySnapshot.readGeneration(binarySnapshotPath);
+            for (Path json : List.of(usersFilePath, coursesFilePath)) {
+                if (generationOf(json) > snapshotGeneration) return false;
+            }
+            BinarySnapshot.Contents contents = BinarySnapshot.read(binarySnapshotPath);
+            users = ChunkedList.copyOf(contents.users);
+            courses = ChunkedList.copyOf(contents.courses);
+            version = contents.generation;
+            return true;
+        } catch (IOException | RuntimeException e) {
+            e.printStackTrace();
+            users = ChunkedList.empty();
+            courses = ChunkedList.empty();
+            return false;
+        }
+    }
+
+    private long generationOf(Path json) {
+        if (!Files.exists(json)) return 0;
+        try {
+            return Math.max(0, codec.readGeneration(json));
+        } catch (IOException | RuntimeException e) {
+            return 0;
+        }
+    }
+
+    private void writeBinarySnapshot(DataSnapshot state) {
+        if (!StorageConfig.isBinarySnapshotEnabled()) return;
+        try {
+            synchronized (snapshotWriteLock) {
+                BinarySnapshot.write(binarySnapshotPath, state.getUserImages(), state.getCourseImages(), state.getVersion());
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
     }
 
     private void loadUsers() {
         try {
             if (Files.exists(usersFilePath)) {
-                String content = Files.readString(usersFilePath);
-                parseUsersJson(content);
+                try (Reader in = Files.newBufferedReader(usersFilePath, StandardCharsets.UTF_8)) {
+                    users = ChunkedList.copyOf(codec.readUsers(in));
+                }
             } else {
                 InputStream is = getClass().getResourceAsStream("/users.json");
                 if (is != null) {
-                    String content = new String(is.readAllBytes());
-                    parseUsersJson(content);
+                    try (Reader in = new InputStreamReader(is, StandardCharsets.UTF_8)) {
+                        users = ChunkedList.copyOf(codec.readUsers(in));
+                    }
                     saveUsers();
                 }
             }
-        } catch (IOException e) {
+        } catch (IOException | JsonParseException e) {
             e.printStackTrace();
-            users = new ArrayList<>();
-        }
-    }
-
-    private void parseUsersJson(String content) {
-        JsonObject root = JsonParser.parseString(content).getAsJsonObject();
-        JsonArray usersArray = root.getAsJsonArray("users");
-        users = new ArrayList<>();
-        for (JsonElement el : usersArray) {
-            User user = gson.fromJson(el, User.class);
-            users.add(user);
+            users = ChunkedList.empty();
         }
     }
 
     private void loadCourses() {
         try {
             if (Files.exists(coursesFilePath)) {
-                String content = Files.readString(coursesFilePath);
-                parseCoursesJson(content);
+                try (Reader in = Files.newBufferedReader(coursesFilePath, StandardCharsets.UTF_8)) {
+                    courses = ChunkedList.copyOf(codec.readCourses(in));
+                }
             } else {
                 InputStream is = getClass().getResourceAsStream("/courses.json");
                 if (is != null) {
-                    String content = new String(is.readAllBytes());
-                    parseCoursesJson(content);
+                    try (Reader in = new InputStreamReader(is, StandardCharsets.UTF_8)) {
+                        courses = ChunkedList.copyOf(codec.readCourses(in));
+                    }
                     saveCourses();
                 }
             }
-        } catch (IOException e) {
+        } catch (IOException | JsonParseException e) {
             e.printStackTrace();
-            courses = new ArrayList<>();
+            courses = ChunkedList.empty();
         }
     }
 
-    private void parseCoursesJson(String content) {
-        JsonObject root = JsonParser.parseString(content).getAsJsonObject();
-        JsonArray coursesArray = root.getAsJsonArray("courses");
-        Type listType = new TypeToken<List<Course>>(){}.getType();
-        courses = gson.fromJson(coursesArray, listType);
-        if (courses == null) courses = new ArrayList<>();
-    }
-
     private void initializeIdCounters() {
         int maxUser = 0, maxCourse = 0, maxLesson = 0, maxQuiz = 0, maxQuestion = 0, maxCert = 0;
         for (User u : users) {
@@ -128,88 +616,380 @@ public class JsonDatabaseManager {
                 maxLesson = Math.max(maxLesson, extractNum(l.getLessonId(), "LSN"));
                 if (l.getQuiz() != null) {
                     maxQuiz = Math.max(maxQuiz, extractNum(l.getQuiz().getQuizId(), "QZ"));
-                    for (Question q : l.getQuiz().getQuestions()) {
+                    for (Question q : l.getQuiz().viewQuestions()) {
                         maxQuestion = Math.max(maxQuestion, extractNum(q.getQuestionId(), "Q"));
                     }
                 }
             }
         }
         IdGenerator.initializeCounters(maxUser, maxCourse, maxLesson, maxQuiz, maxQuestion, maxCert);
+        if (StorageConfig.getIdBlockSize() > 0) {
+            IdGenerator.useBlockAllocator(new IdBlockAllocator(dataDir.resolve("id-blocks")),
+                    StorageConfig.getIdBlockSize());
+        }
     }
 
     private int extractNum(String id, String prefix) {
+        return (int) Math.max(0, IdCodec.parse(id, prefix));
+    }
+
+    public void saveUsers() {
+        if (userStore != null) {
+            synchronized (this) {
+                for (User u : users) dirtyUserIds.add(u.getUserId());
+            }
+            checkpoint();
+            return;
+        }
         try {
-            return Integer.parseInt(id.replace(prefix, ""));
-        } catch (Exception e) {
-            return 0;
+            writeUsersSnapshot(getSnapshot());
+        } catch (IOException e) {
+            e.printStackTrace();
         }
     }
 
-    public synchronized void saveUsers() {
+    public void saveCourses() {
+        if (courseStore != null) {
+            synchronized (this) {
+                for (Course c : courses) dirtyCourseIds.add(c.getCourseId());
+            }
+            checkpoint();
+            return;
+        }
         try {
-            JsonObject root = new JsonObject();
-            root.add("users", gson.toJsonTree(users));
-            Files.writeString(usersFilePath, gson.toJson(root));
+            writeCoursesSnapshot(getSnapshot());
         } catch (IOException e) {
             e.printStackTrace();
         }
     }
 
-    public synchronized void saveCourses() {
+    private void writeUsersSnapshot(DataSnapshot state) throws IOException {
+        synchronized (snapshotWriteLock) {
+            codec.writeUsers(usersFilePath, state.getUserImages(), state.getVersion());
+        }
+    }
+
+    private void writeCoursesSnapshot(DataSnapshot state) throws IOException {
+        synchronized (snapshotWriteLock) {
+            codec.writeCourses(coursesFilePath, state.getCourseImages(), Math.max(0, state.getCoursesVersion()));
+        }
+    }
+
+    public void checkpoint() {
         try {
-            JsonObject root = new JsonObject();
-            root.add("courses", gson.toJsonTree(courses));
-            Files.writeString(coursesFilePath, gson.toJson(root));
+            checkpointNow();
         } catch (IOException e) {
             e.printStackTrace();
         }
     }
 
+    // The journal is sealed and the snapshot taken under the monitor; the slow
+    // write of its images happens outside it so mutations can keep appending
+    private void checkpointNow() throws IOException {
+        if (userStore != null) {
+            writeDirtyShards();
+            return;
+        }
+        DataSnapshot state;
+        checkpointLock.writeLock().lock();
+        try {
+            synchronized (this) {
+                if (wal != null) wal.rotate();
+                state = getSnapshot();
+            }
+        } finally {
+            checkpointLock.writeLock().unlock();
+        }
+        writeUsersSnapshot(state);
+        writeCoursesSnapshot(state);
+        writeBinarySnapshot(state);
+        if (wal != null) wal.discardRotated();
+    }
+
+    private void writeDirtyShards() throws IOException {
+        Map<String, User> userWrites = new LinkedHashMap<>();
+        Map<String, Course> courseWrites = new LinkedHashMap<>();
+        List<String> courseDeletes;
+        synchronized (this) {
+            DataSnapshot state = snapshotOf();
+            for (String id : dirtyUserIds) {
+                Integer position = userPositions.get(id);
+                userWrites.put(id, position != null ? state.getUserImages().get(position) : null);
+            }
+            for (String id : dirtyCourseIds) {
+                Integer position = coursePositions.get(id);
+                courseWrites.put(id, position != null ? state.getCourseImages().get(position) : null);
+            }
+            courseDeletes = new ArrayList<>(deletedCourseIds);
+            dirtyUserIds.clear();
+            dirtyCourseIds.clear();
+            deletedCourseIds.clear();
+        }
+        try {
+            synchronized (snapshotWriteLock) {
+                for (Map.Entry<String, User> e : userWrites.entrySet()) {
+                    if (e.getValue() != null) userStore.save(e.getKey(), e.getValue());
+                }
+                for (Map.Entry<String, Course> e : courseWrites.entrySet()) {
+                    if (e.getValue() != null) courseStore.save(e.getKey(), e.getValue());
+                }
+                for (String id : courseDeletes) {
+                    courseStore.delete(id);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            synchronized (this) {
+                dirtyUserIds.addAll(userWrites.keySet());
+                dirtyCourseIds.addAll(courseWrites.keySet());
+                deletedCourseIds.addAll(courseDeletes);
+            }
+            throw e;
+        }
+    }
+
+    private void persistDirty(boolean usersDirty, boolean coursesDirty) throws IOException {
+        if (userStore != null || wal != null) {
+            checkpointNow();
+            return;
+        }
+        DataSnapshot state = getSnapshot();
+        if (usersDirty) writeUsersSnapshot(state);
+        if (coursesDirty) writeCoursesSnapshot(state);
+        writeBinarySnapshot(state);
+    }
+
+    public void flush() {
+        if (writer != null) {
+            writer.flush();
+        }
+        if (wal != null) {
+            try {
+                wal.sync();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    public void shutdown() {
+        if (writer != null) {
+            writer.shutdown();
+        }
+        try {
+            attemptLog.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        if (wal != null) {
+            checkpoint();
+            try {
+                wal.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    // Hands a set of already-applied changes to whichever persistence path is
+    // active. A multi-entity change is one WAL write, one dirty mark or one
+    // synchronous save per file, never one per entity
+    private void persist(List<WriteAheadLog.Record> changes) {
+        if (changes.isEmpty()) return;
+        boolean usersChanged = false, coursesChanged = false;
+        for (WriteAheadLog.Record change : changes) {
+            if (change.getOp().equals(WriteAheadLog.USER_UPSERT)) usersChanged = true;
+            else coursesChanged = true;
+        }
+        if (userStore != null) {
+            synchronized (this) {
+                for (WriteAheadLog.Record change : changes) {
+                    switch (change.getOp()) {
+                        case WriteAheadLog.USER_UPSERT -> dirtyUserIds.add(change.getId());
+                        case WriteAheadLog.COURSE_UPSERT -> {
+                            deletedCourseIds.remove(change.getId());
+                            dirtyCourseIds.add(change.getId());
+                        }
+                        case WriteAheadLog.COURSE_DELETE -> {
+                            dirtyCourseIds.remove(change.getId());
+                            deletedCourseIds.add(change.getId());
+                        }
+                    }
+                }
+            }
+            if (writer != null) writer.markDirty(usersChanged, coursesChanged); else checkpoint();
+        } else if (wal != null) {
+            appendToWal(changes, usersChanged, coursesChanged);
+        } else if (writer != null) {
+            writer.markDirty(usersChanged, coursesChanged);
+        } else {
+            if (usersChanged) saveUsers();
+            if (coursesChanged) saveCourses();
+        }
+    }
+
+    // The journal payload is only needed when the WAL is active; it is built
+    // under the entity's monitor, off the monitor of the store
+    private JsonElement walPayload(Object entity) {
+        return wal != null && userStore == null ? gson.toJsonTree(entity) : null;
+    }
+
+    private void appendToWal(List<WriteAheadLog.Record> changes, boolean usersChanged, boolean coursesChanged) {
+        try {
+            wal.appendAll(changes, false);
+            if (wal.getRecordCount() >= StorageConfig.getWalCheckpointRecords()) {
+                if (writer != null) writer.markDirty(true, true); else checkpoint();
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+            // The journal is unusable; fall back to rewriting the snapshot
+            if (writer != null) {
+                writer.markDirty(usersChanged, coursesChanged);
+            } else {
+                if (usersChanged) saveUsers();
+                if (coursesChanged) saveCourses();
+            }
+        }
+    }
+
     // User operations
     public User findUserByEmail(String email) {
-        return users.stream()
-                .filter(u -> u.getEmail().equalsIgnoreCase(email))
-                .findFirst().orElse(null);
+        return email == null ? null : usersByEmail.get(emailKey(email));
     }
 
     public User findUserById(String userId) {
-        return users.stream()
-                .filter(u -> u.getUserId().equals(userId))
-                .findFirst().orElse(null);
+        return userId == null ? null : usersById.get(userId);
     }
 
     public boolean emailExists(String email) {
         return findUserByEmail(email) != null;
     }
 
-    public void addUser(User user) {
-        users.add(user);
-        saveUsers();
+    // Returns false, and stores nothing, when another user already has the
+    // email. The check and the insert happen under the same monitor that
+    // guards the email index, so two signups for one address cannot both win.
+    //
+    // Every write holds the entity's own monitor, the one callers hold while
+    // they change it, from serializing the entity until it is persisted. Writes
+    // to one entity therefore reach the journal in the order they were applied,
+    // while writes to different entities only meet on the monitor of the store,
+    // which guards the lists and indexes
+    public boolean addUser(User user) {
+        synchronized (user) {
+            JsonElement data = walPayload(user);
+            User image = user.copyState();
+            synchronized (this) {
+                if (user.getEmail() != null && usersByEmail.containsKey(emailKey(user.getEmail()))) {
+                    return false;
+                }
+                putUser(user, image);
+                indexUser(user);
+                committed(false);
+            }
+            persist(List.of(new WriteAheadLog.Record(WriteAheadLog.USER_UPSERT, user.getUserId(), data)));
+            return true;
+        }
     }
 
+    // Stores user in place of the one with its id; does nothing if there is none
     public void updateUser(User user) {
-        for (int i = 0; i < users.size(); i++) {
-            if (users.get(i).getUserId().equals(user.getUserId())) {
-                users.set(i, user);
-                break;
+        synchronized (user) {
+            if (!usersById.containsKey(user.getUserId())) return;
+            JsonElement data = walPayload(user);
+            User image = user.copyState();
+            synchronized (this) {
+                if (!usersById.containsKey(user.getUserId())) return;
+                putUser(user, image);
+                indexUser(user);
+                committed(false);
             }
+            persist(List.of(new WriteAheadLog.Record(WriteAheadLog.USER_UPSERT, user.getUserId(), data)));
         }
-        saveUsers();
     }
 
     public List<User> getAllUsers() {
-        return new ArrayList<>(users);
+        return getSnapshot().getUsers();
+    }
+
+    // One page of the users matching filter (null for all) in the given order
+    // (null for storage order). Memory follows the page, not the result: with
+    // no order one scan keeps only the rows inside the page, and with one a
+    // heap keeps only the rows that can still land in it, counted from
+    // whichever end of the order the page is nearer. No sorted index is kept
+    // per column, since the order is whatever comparator the caller passes
+    public QueryPage<User> queryUsers(Predicate<? super User> filter, Comparator<? super User> order,
+                                      int offset, int limit) {
+        return query(getSnapshot().getUsers(), filter, order, offset, limit);
+    }
+
+    // As queryUsers; a non-null status is answered from the status index
+    public QueryPage<Course> queryCourses(ApprovalStatus status, Predicate<? super Course> filter,
+                                          Comparator<? super Course> order, int offset, int limit) {
+        List<Course> source = status != null ? getCoursesByStatus(status) : getSnapshot().getCourses();
+        return query(source, filter, order, offset, limit);
+    }
+
+    private static <T> QueryPage<T> query(List<T> source, Predicate<? super T> filter, Comparator<? super T> order,
+                                          int offset, int limit) {
+        if (offset < 0 || limit < 0) throw new IllegalArgumentException("offset and limit must not be negative");
+        if (order == null) {
+            List<T> rows = new ArrayList<>(Math.min(limit, source.size()));
+            int total = 0;
+            for (T item : source) {
+                if (filter != null && !filter.test(item)) continue;
+                if (total >= offset && rows.size() < limit) rows.add(item);
+                total++;
+            }
+            return new QueryPage<>(Collections.unmodifiableList(rows), offset, total);
+        }
+
+        int total = source.size();
+        if (filter != null) {
+            total = 0;
+            for (T item : source) {
+                if (filter.test(item)) total++;
+            }
+        }
+        int end = (int) Math.min((long) offset + limit, total);
+        if (offset >= end) return new QueryPage<>(List.of(), offset, total);
+
+        // Ties go by storage position, so the pages of one result never overlap
+        Comparator<Integer> byOrder = (a, b) -> {
+            int c = order.compare(source.get(a), source.get(b));
+            return c != 0 ? c : Integer.compare(a, b);
+        };
+        // Keep either the first end rows or the last total - offset, whichever is fewer.
+        // The heap's head is the kept row furthest from the page, so it goes first
+        boolean fromEnd = total - offset < end;
+        int keep = fromEnd ? total - offset : end;
+        Comparator<Integer> furthestFirst = fromEnd ? byOrder : byOrder.reversed();
+        PriorityQueue<Integer> heap = new PriorityQueue<>(keep + 1, furthestFirst);
+        for (int i = 0; i < source.size(); i++) {
+            if (heap.size() == keep && furthestFirst.compare(i, heap.peek()) <= 0) continue;
+            if (filter != null && !filter.test(source.get(i))) continue;
+            heap.add(i);
+            if (heap.size() > keep) heap.poll();
+        }
+
+        List<Integer> kept = new ArrayList<>(heap);
+        kept.sort(byOrder);
+        int from = fromEnd ? 0 : offset;
+        int to = Math.min(kept.size(), from + end - offset);
+        List<T> rows = new ArrayList<>(Math.max(0, to - from));
+        for (int k = from; k < to; k++) {
+            rows.add(source.get(kept.get(k)));
+        }
+        return new QueryPage<>(Collections.unmodifiableList(rows), offset, total);
     }
 
     public List<Student> getAllStudents() {
-        return users.stream()
+        return getSnapshot().getUsers().stream()
                 .filter(u -> u instanceof Student)
                 .map(u -> (Student) u)
                 .collect(Collectors.toList());
     }
 
     public List<Instructor> getAllInstructors() {
-        return users.stream()
+        return getSnapshot().getUsers().stream()
                 .filter(u -> u instanceof Instructor)
                 .map(u -> (Instructor) u)
                 .collect(Collectors.toList());
@@ -217,57 +997,292 @@ public class JsonDatabaseManager {
 
     // Course operations
     public void addCourse(Course course) {
-        courses.add(course);
-        saveCourses();
+        synchronized (course) {
+            JsonElement data = walPayload(course);
+            Course image = course.copyContents();
+            synchronized (this) {
+                putCourse(course, image);
+                indexCourse(course);
+                committed(true);
+            }
+            persist(List.of(new WriteAheadLog.Record(WriteAheadLog.COURSE_UPSERT, course.getCourseId(), data)));
+        }
     }
 
+    // As updateUser
     public void updateCourse(Course course) {
-        for (int i = 0; i < courses.size(); i++) {
-            if (courses.get(i).getCourseId().equals(course.getCourseId())) {
-                courses.set(i, course);
-                break;
+        synchronized (course) {
+            if (!coursesById.containsKey(course.getCourseId())) return;
+            JsonElement data = walPayload(course);
+            Course image = course.copyContents();
+            synchronized (this) {
+                if (!coursesById.containsKey(course.getCourseId())) return;
+                putCourse(course, image);
+                indexCourse(course);
+                committed(true);
             }
+            persist(List.of(new WriteAheadLog.Record(WriteAheadLog.COURSE_UPSERT, course.getCourseId(), data)));
         }
-        saveCourses();
     }
 
     public void deleteCourse(String courseId) {
-        courses.removeIf(c -> c.getCourseId().equals(courseId));
-        saveCourses();
+        Course existing = coursesById.get(courseId);
+        if (existing == null) return;
+        synchronized (existing) {
+            synchronized (this) {
+                if (removeCourse(courseId) == null) return;
+                unindexCourse(courseId);
+                committed(true);
+            }
+            persist(List.of(new WriteAheadLog.Record(WriteAheadLog.COURSE_DELETE, courseId, null)));
+        }
+    }
+
+    public Transaction beginTransaction() {
+        return new Transaction(this);
+    }
+
+    // Before-images for transactions: the entity's fields and collections,
+    // never its lesson bodies, so staging costs the size of what can change
+    User copyOfStoredUser(String userId) {
+        User stored = usersById.get(userId);
+        return stored != null ? stored.copyState() : null;
+    }
+
+    Course copyOfStoredCourse(String courseId) {
+        Course stored = coursesById.get(courseId);
+        return stored != null ? stored.copyState() : null;
+    }
+
+    // Holds the monitors of every staged entity, and of the stored one it
+    // replaces, for the whole commit: users, then courses, each in id order,
+    // which is the order services take them in. Nobody changes them between
+    // serializing and persisting, readers see all of the change or none of it,
+    // and it reaches disk as one write
+    void commit(Transaction tx) {
+        if (tx.isEmpty()) return;
+        withMonitors(monitorsFor(tx), 0, () -> apply(tx));
+        if (wal != null && wal.getRecordCount() >= StorageConfig.getWalCheckpointRecords()) {
+            if (writer != null) writer.markDirty(true, true); else checkpoint();
+        }
+    }
+
+    private void apply(Transaction tx) {
+        List<WriteAheadLog.Record> changes = new ArrayList<>();
+        Map<String, User> newUserImages = new HashMap<>();
+        Map<String, Course> newCourseImages = new HashMap<>();
+        for (User user : tx.users.values()) {
+            changes.add(new WriteAheadLog.Record(WriteAheadLog.USER_UPSERT, user.getUserId(), walPayload(user)));
+            newUserImages.put(user.getUserId(), user.copyState());
+        }
+        for (Course course : tx.courses.values()) {
+            changes.add(new WriteAheadLog.Record(WriteAheadLog.COURSE_UPSERT, course.getCourseId(), walPayload(course)));
+            newCourseImages.put(course.getCourseId(), course.copyContents());
+        }
+        for (String courseId : tx.deletedCourseIds) {
+            changes.add(new WriteAheadLog.Record(WriteAheadLog.COURSE_DELETE, courseId, null));
+        }
+        checkpointLock.readLock().lock();
+        try {
+            synchronized (this) {
+                for (User user : tx.users.values()) {
+                    User previous = putUser(user, newUserImages.get(user.getUserId()));
+                    if (previous != null && previous != user) tx.displacedUsers.put(user.getUserId(), previous);
+                    indexUser(user);
+                }
+                for (Course course : tx.courses.values()) {
+                    Course previous = putCourse(course, newCourseImages.get(course.getCourseId()));
+                    if (previous != null && previous != course) tx.displacedCourses.put(course.getCourseId(), previous);
+                    indexCourse(course);
+                }
+                for (String courseId : tx.deletedCourseIds) {
+                    Course existing = removeCourse(courseId);
+                    if (existing == null) continue;
+                    unindexCourse(courseId);
+                    tx.displacedCourses.put(courseId, existing);
+                }
+                committed(!tx.courses.isEmpty() || !tx.deletedCourseIds.isEmpty());
+            }
+            try {
+                persistDurably(tx, changes);
+            } catch (IOException | RuntimeException e) {
+                restore(tx);
+                repairAfterFailedCommit(tx);
+                throw new TransactionException("Commit failed; changes were rolled back", e);
+            }
+        } finally {
+            checkpointLock.readLock().unlock();
+        }
+    }
+
+    void rollback(Transaction tx) {
+        if (tx.isEmpty()) return;
+        withMonitors(monitorsFor(tx), 0, () -> restore(tx));
+    }
+
+    private List<Object> monitorsFor(Transaction tx) {
+        List<Object> monitors = new ArrayList<>();
+        for (User user : new TreeMap<>(tx.users).values()) {
+            monitors.add(user);
+            User stored = usersById.get(user.getUserId());
+            if (stored != null && stored != user) monitors.add(stored);
+        }
+        for (Course course : new TreeMap<>(tx.courses).values()) {
+            monitors.add(course);
+            Course stored = coursesById.get(course.getCourseId());
+            if (stored != null && stored != course) monitors.add(stored);
+        }
+        for (String courseId : new TreeSet<>(tx.deletedCourseIds)) {
+            Course stored = coursesById.get(courseId);
+            if (stored != null) monitors.add(stored);
+        }
+        return monitors;
+    }
+
+    private static void withMonitors(List<Object> monitors, int from, Runnable body) {
+        if (from == monitors.size()) {
+            body.run();
+            return;
+        }
+        synchronized (monitors.get(from)) {
+            withMonitors(monitors, from + 1, body);
+        }
+    }
+
+    // Copies the staged images back into the live objects: the one the caller
+    // staged and the one that was stored, which are usually the same, and puts
+    // the stored one back in place. Sessions and frames holding either object
+    // therefore see the rollback too. Entities that are new are removed again
+    private void restore(Transaction tx) {
+        synchronized (this) {
+            for (Map.Entry<String, User> e : tx.userBeforeImages.entrySet()) {
+                String id = e.getKey();
+                User before = e.getValue();
+                User stored = usersById.get(id);
+                if (before == null) {
+                    if (removeUser(id) != null) unindexUser(id);
+                    continue;
+                }
+                User staged = tx.users.get(id);
+                User live = tx.displacedUsers.getOrDefault(id, stored != null ? stored : staged);
+                if (live == null) live = before;
+                if (staged != null && staged != live) staged.restoreFrom(before.copyState());
+                if (live != before) live.restoreFrom(before);
+                putUser(live, live.copyState());
+                indexUser(live);
+            }
+            for (Map.Entry<String, Course> e : tx.courseBeforeImages.entrySet()) {
+                String id = e.getKey();
+                Course before = e.getValue();
+                Course stored = coursesById.get(id);
+                if (before == null) {
+                    if (removeCourse(id) != null) unindexCourse(id);
+                    continue;
+                }
+                Course staged = tx.courses.get(id);
+                Course live = tx.displacedCourses.getOrDefault(id, stored != null ? stored : staged);
+                if (live == null) live = before;
+                if (staged != null && staged != live) staged.restoreFrom(before.copyState());
+                if (live != before) live.restoreFrom(before);
+                putCourse(live, live.copyContents());
+                indexCourse(live);
+            }
+            committed(!tx.courseBeforeImages.isEmpty());
+        }
+    }
+
+    // A failed write may have left part of the commit on disk (some shard files,
+    // or a torn journal line), so the restored state is scheduled to be rewritten
+    private void repairAfterFailedCommit(Transaction tx) {
+        if (userStore != null) {
+            synchronized (this) {
+                for (Map.Entry<String, User> e : tx.userBeforeImages.entrySet()) {
+                    if (e.getValue() != null) dirtyUserIds.add(e.getKey());
+                }
+                for (Map.Entry<String, Course> e : tx.courseBeforeImages.entrySet()) {
+                    if (e.getValue() != null) {
+                        deletedCourseIds.remove(e.getKey());
+                        dirtyCourseIds.add(e.getKey());
+                    } else {
+                        dirtyCourseIds.remove(e.getKey());
+                        deletedCourseIds.add(e.getKey());
+                    }
+                }
+            }
+        }
+        if (writer != null) writer.markDirty(true, true);
+    }
+
+    // One durable write per commit: a single fsynced journal line with the WAL,
+    // the touched shard files in sharded mode, otherwise the affected files
+    private void persistDurably(Transaction tx, List<WriteAheadLog.Record> changes) throws IOException {
+        if (userStore != null) {
+            synchronized (snapshotWriteLock) {
+                for (User user : tx.users.values()) userStore.save(user.getUserId(), user);
+                for (Course course : tx.courses.values()) courseStore.save(course.getCourseId(), course);
+                for (String courseId : tx.deletedCourseIds) courseStore.delete(courseId);
+            }
+        } else if (wal != null) {
+            wal.appendAll(changes, true);
+        } else {
+            DataSnapshot state = getSnapshot();
+            if (!tx.users.isEmpty()) writeUsersSnapshot(state);
+            if (!tx.courses.isEmpty() || !tx.deletedCourseIds.isEmpty()) writeCoursesSnapshot(state);
+        }
     }
 
     public Course findCourseById(String courseId) {
-        return courses.stream()
-                .filter(c -> c.getCourseId().equals(courseId))
-                .findFirst().orElse(null);
+        return courseId == null ? null : coursesById.get(courseId);
+    }
+
+    // Body of a single lesson for display; detached lessons are served from the
+    // recently-opened cache without materializing anything on the Lesson itself
+    public LessonBody getLessonBody(String courseId, String lessonId) {
+        Course course = findCourseById(courseId);
+        Lesson lesson = course != null ? course.getLessonById(lessonId) : null;
+        if (lesson == null) return null;
+        if (lesson.isBodyLoaded() || lessonBodyCache == null) {
+            return new LessonBody(lesson.getContent(), lesson.getResources());
+        }
+        return lessonBodyCache.getBody(lessonId);
     }
 
     public List<Course> getAllCourses() {
-        return new ArrayList<>(courses);
+        return getSnapshot().getCourses();
     }
 
     public List<Course> getApprovedCourses() {
-        return courses.stream()
-                .filter(c -> c.getApprovalStatus() == ApprovalStatus.APPROVED)
-                .collect(Collectors.toList());
+        return coursesFor(courseIdsByStatus, ApprovalStatus.APPROVED);
     }
 
     public List<Course> getPendingCourses() {
-        return courses.stream()
-                .filter(c -> c.getApprovalStatus() == ApprovalStatus.PENDING)
-                .collect(Collectors.toList());
+        return coursesFor(courseIdsByStatus, ApprovalStatus.PENDING);
+    }
+
+    public List<Course> getCoursesByStatus(ApprovalStatus status) {
+        return coursesFor(courseIdsByStatus, status);
     }
 
     public List<Course> getCoursesByInstructor(String instructorId) {
-        return courses.stream()
-                .filter(c -> c.getInstructorId().equals(instructorId))
-                .collect(Collectors.toList());
+        return coursesFor(courseIdsByInstructor, instructorId);
     }
 
     public List<Course> getEnrolledCourses(String studentId) {
-        return courses.stream()
-                .filter(c -> c.getStudents().contains(studentId))
-                .collect(Collectors.toList());
+        return coursesFor(courseIdsByStudent, studentId);
+    }
+
+    // Snapshot of the keys a course was last indexed under, so in-place edits
+    // can be diffed against the index on the next updateCourse
+    private static class IndexedCourseKeys {
+        private final String instructorId;
+        private final ApprovalStatus status;
+        private final Set<String> students;
+
+        IndexedCourseKeys(Course course) {
+            this.instructorId = course.getInstructorId();
+            this.status = course.getApprovalStatus();
+            this.students = new HashSet<>(course.getStudents());
+        }
     }
 
     // Adapters
@@ -286,12 +1301,67 @@ public class JsonDatabaseManager {
         }
     }
 
-    private class UserDeserializer implements JsonDeserializer<User> {
+    private static class UserTypeAdapterFactory implements TypeAdapterFactory {
         @Override
-        public User deserialize(JsonElement json, Type t, JsonDeserializationContext ctx) {
-            JsonObject obj = json.getAsJsonObject();
-            String roleStr = obj.get("role").getAsString();
-            Role role = Role.valueOf(roleStr);
+        @SuppressWarnings("unchecked")
+        public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+            if (type.getRawType() != User.class) return null;
+            return (TypeAdapter<T>) new UserTypeAdapter(gson).nullSafe();
+        }
+    }
+
+    // Streams a user without building a JSON tree; the role decides the concrete subclass
+    private static class UserTypeAdapter extends TypeAdapter<User> {
+        private final Gson gson;
+        private final Type stringListType = new TypeToken<List<String>>(){}.getType();
+        private final Type progressMapType = new TypeToken<Map<String, CourseProgress>>(){}.getType();
+        private final Type attemptListType = new TypeToken<List<QuizAttempt>>(){}.getType();
+        private final Type certificateListType = new TypeToken<List<Certificate>>(){}.getType();
+
+        UserTypeAdapter(Gson gson) {
+            this.gson = gson;
+        }
+
+        @Override
+        public void write(JsonWriter out, User user) throws IOException {
+            @SuppressWarnings("unchecked")
+            TypeAdapter<User> delegate = (TypeAdapter<User>) gson.getAdapter(user.getClass());
+            delegate.write(out, user);
+        }
+
+        @Override
+        public User read(JsonReader in) throws IOException {
+            String userId = null, username = null, email = null, passwordHash = null;
+            Role role = Role.STUDENT;
+            LocalDateTime createdAt = null;
+            List<String> enrolledCourses = null, createdCourses = null;
+            Map<String, CourseProgress> progress = null;
+            List<QuizAttempt> quizAttempts = null;
+            List<Certificate> certificates = null;
+
+            in.beginObject();
+            while (in.hasNext()) {
+                String name = in.nextName();
+                if (in.peek() == JsonToken.NULL) {
+                    in.nextNull();
+                    continue;
+                }
+                switch (name) {
+                    case "userId" -> userId = in.nextString();
+                    case "role" -> role = Role.valueOf(in.nextString());
+                    case "username" -> username = in.nextString();
+                    case "email" -> email = in.nextString();
+                    case "passwordHash" -> passwordHash = in.nextString();
+                    case "createdAt" -> createdAt = LocalDateTime.parse(in.nextString());
+                    case "enrolledCourses" -> enrolledCourses = read(in, stringListType);
+                    case "progress" -> progress = read(in, progressMapType);
+                    case "quizAttempts" -> quizAttempts = read(in, attemptListType);
+                    case "certificates" -> certificates = read(in, certificateListType);
+                    case "createdCourses" -> createdCourses = read(in, stringListType);
+                    default -> in.skipValue();
+                }
+            }
+            in.endObject();
 
             User user;
             switch (role) {
@@ -300,36 +1370,26 @@ public class JsonDatabaseManager {
                 default -> user = new Student();
             }
 
-            user.setUserId(obj.get("userId").getAsString());
+            user.setUserId(userId);
             user.setRole(role);
-            user.setUsername(obj.get("username").getAsString());
-            user.setEmail(obj.get("email").getAsString());
-            user.setPasswordHash(obj.get("passwordHash").getAsString());
+            user.setUsername(username);
+            user.setEmail(email);
+            user.setPasswordHash(passwordHash);
 
-            if (obj.has("createdAt")) {
-                user.setCreatedAt(LocalDateTime.parse(obj.get("createdAt").getAsString()));
-            }
-            if (obj.has("enrolledCourses")) {
-                Type listType = new TypeToken<List<String>>(){}.getType();
-                user.setEnrolledCourses(gson.fromJson(obj.get("enrolledCourses"), listType));
-            }
-            if (obj.has("progress")) {
-                Type mapType = new TypeToken<Map<String, CourseProgress>>(){}.getType();
-                user.setProgress(gson.fromJson(obj.get("progress"), mapType));
-            }
-            if (obj.has("quizAttempts")) {
-                Type listType = new TypeToken<List<QuizAttempt>>(){}.getType();
-                user.setQuizAttempts(gson.fromJson(obj.get("quizAttempts"), listType));
-            }
-            if (obj.has("certificates")) {
-                Type listType = new TypeToken<List<Certificate>>(){}.getType();
-                user.setCertificates(gson.fromJson(obj.get("certificates"), listType));
-            }
-            if (user instanceof Instructor && obj.has("createdCourses")) {
-                Type listType = new TypeToken<List<String>>(){}.getType();
-                ((Instructor) user).setCreatedCourses(gson.fromJson(obj.get("createdCourses"), listType));
+            if (createdAt != null) user.setCreatedAt(createdAt);
+            if (enrolledCourses != null) user.setEnrolledCourses(enrolledCourses);
+            if (progress != null) user.setProgress(progress);
+            if (quizAttempts != null) user.setQuizAttempts(quizAttempts);
+            if (certificates != null) user.setCertificates(certificates);
+            if (user instanceof Instructor && createdCourses != null) {
+                ((Instructor) user).setCreatedCourses(createdCourses);
             }
             return user;
         }
+
+        @SuppressWarnings("unchecked")
+        private <T> T read(JsonReader in, Type type) throws IOException {
+            return (T) gson.getAdapter(TypeToken.get(type)).read(in);
+        }
     }
-}
\ No newline at end of file
+}
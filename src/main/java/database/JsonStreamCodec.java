@@ -0,0 +1,147 @@
+package database;
+
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import model.Course;
+import model.User;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+class JsonStreamCodec {
+    private static final String GENERATION = "generation";
+
+    private final TypeAdapter<User> userAdapter;
+    private final TypeAdapter<Course> courseAdapter;
+    private final boolean prettyPrint;
+
+    JsonStreamCodec(Gson gson, boolean prettyPrint) {
+        this.userAdapter = gson.getAdapter(User.class);
+        this.courseAdapter = gson.getAdapter(Course.class);
+        this.prettyPrint = prettyPrint;
+    }
+
+    List<User> readUsers(Reader in) throws IOException {
+        return readArray(in, "users", userAdapter);
+    }
+
+    List<Course> readCourses(Reader in) throws IOException {
+        return readArray(in, "courses", courseAdapter);
+    }
+
+    // Walks {"<field>": [ ... ]} binding one element at a time, so only the
+    // objects themselves are ever resident, never the text or a JSON tree
+    private <T> List<T> readArray(Reader in, String field, TypeAdapter<T> adapter) throws IOException {
+        List<T> result = new ArrayList<>();
+        try (JsonReader reader = new JsonReader(new BufferedReader(in, 64 * 1024))) {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                if (field.equals(reader.nextName()) && reader.peek() == JsonToken.BEGIN_ARRAY) {
+                    reader.beginArray();
+                    while (reader.hasNext()) {
+                        T item = adapter.read(reader);
+                        if (item != null) result.add(item);
+                    }
+                    reader.endArray();
+                } else {
+                    reader.skipValue();
+                }
+            }
+            reader.endObject();
+        }
+        return result;
+    }
+
+    void writeUsers(Path target, Collection<? extends User> users, long generation) throws IOException {
+        writeArray(target, "users", users, generation, userAdapter);
+    }
+
+    void writeCourses(Path target, Collection<? extends Course> courses, long generation) throws IOException {
+        writeArray(target, "courses", courses, generation, courseAdapter);
+    }
+
+    // The generation is written as the first field, so this reads only the
+    // start of the file. -1 when the file has none (written before generations)
+    long readGeneration(Path source) throws IOException {
+        try (JsonReader reader = new JsonReader(Files.newBufferedReader(source, StandardCharsets.UTF_8))) {
+            reader.beginObject();
+            if (reader.hasNext() && GENERATION.equals(reader.nextName()) && reader.peek() == JsonToken.NUMBER) {
+                return reader.nextLong();
+            }
+            return -1;
+        }
+    }
+
+    User readUser(Reader in) throws IOException {
+        return readEntity(in, userAdapter);
+    }
+
+    Course readCourse(Reader in) throws IOException {
+        return readEntity(in, courseAdapter);
+    }
+
+    void writeUser(Path target, User user) throws IOException {
+        writeAtomically(target, writer -> userAdapter.write(writer, user));
+    }
+
+    void writeCourse(Path target, Course course) throws IOException {
+        writeAtomically(target, writer -> courseAdapter.write(writer, course));
+    }
+
+    private <T> T readEntity(Reader in, TypeAdapter<T> adapter) throws IOException {
+        try (JsonReader reader = new JsonReader(new BufferedReader(in))) {
+            return adapter.read(reader);
+        }
+    }
+
+    private <T> void writeArray(Path target, String field, Collection<? extends T> items, long generation,
+                                TypeAdapter<T> adapter) throws IOException {
+        writeAtomically(target, writer -> {
+            writer.beginObject();
+            writer.name(GENERATION).value(generation);
+            writer.name(field);
+            writer.beginArray();
+            for (T item : items) {
+                adapter.write(writer, item);
+            }
+            writer.endArray();
+            writer.endObject();
+        });
+    }
+
+    // Streams into a sibling temp file and renames it over the target, so a
+    // crash mid-write leaves the previous file untouched
+    private void writeAtomically(Path target, JsonBody body) throws IOException {
+        Path dir = target.toAbsolutePath().getParent();
+        Path temp = Files.createTempFile(dir, target.getFileName().toString(), ".tmp");
+        try {
+            try (FileOutputStream fos = new FileOutputStream(temp.toFile());
+                 Writer out = new BufferedWriter(new OutputStreamWriter(fos, StandardCharsets.UTF_8), 64 * 1024);
+                 JsonWriter writer = new JsonWriter(out)) {
+                writer.setSerializeNulls(false);
+                if (prettyPrint) writer.setIndent("  ");
+                body.write(writer);
+                writer.flush();
+                fos.getFD().sync();
+            }
+            try {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private interface JsonBody {
+        void write(JsonWriter writer) throws IOException;
+    }
+}
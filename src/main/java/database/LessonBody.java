@@ -0,0 +1,17 @@
+package database;
+
+import java.util.Collections;
+import java.util.List;
+
+public class LessonBody {
+    private final String content;
+    private final List<String> resources;
+
+    public LessonBody(String content, List<String> resources) {
+        this.content = content;
+        this.resources = resources == null ? Collections.emptyList() : List.copyOf(resources);
+    }
+
+    public String getContent() { return content; }
+    public List<String> getResources() { return resources; }
+}
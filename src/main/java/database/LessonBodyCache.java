@@ -0,0 +1,54 @@
+package database;
+
+import model.LessonBodySource;
+import model.Question;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Keeps the bodies of the most recently opened lessons decoded; everything
+// else stays in the backing source until it is asked for
+class LessonBodyCache implements LessonBodySource {
+    private final LessonBodySource source;
+    private final Map<String, LessonBody> recent;
+
+    LessonBodyCache(LessonBodySource source, int capacity) {
+        this.source = source;
+        this.recent = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, LessonBody> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    synchronized LessonBody getBody(String lessonId) {
+        LessonBody body = recent.get(lessonId);
+        if (body == null) {
+            body = new LessonBody(source.loadContent(lessonId), source.loadResources(lessonId));
+            recent.put(lessonId, body);
+        }
+        return body;
+    }
+
+    @Override
+    public String loadContent(String lessonId) {
+        return getBody(lessonId).getContent();
+    }
+
+    @Override
+    public List<String> loadResources(String lessonId) {
+        return getBody(lessonId).getResources();
+    }
+
+    @Override
+    public List<Question> loadQuestions(String lessonId) {
+        return source.loadQuestions(lessonId);
+    }
+
+    @Override
+    public LessonBodySource uncached() {
+        return source;
+    }
+}
@@ -0,0 +1,87 @@
+package database;
+
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import model.Lesson;
+import model.Question;
+import model.Quiz;
+
+import java.io.IOException;
+import java.util.List;
+
+// Lessons and quizzes may have their bodies detached into the mapped catalog,
+// so they are written through their read-only views instead of by field
+// reflection; serializing never fills the lesson cache or materializes a body.
+// Reading is left to Gson's reflective adapters.
+class LessonTypeAdapterFactory implements TypeAdapterFactory {
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+        if (type.getRawType() == Lesson.class) {
+            TypeAdapter<Lesson> reader = gson.getDelegateAdapter(this, TypeToken.get(Lesson.class));
+            return (TypeAdapter<T>) new LessonAdapter(gson, reader).nullSafe();
+        }
+        if (type.getRawType() == Quiz.class) {
+            TypeAdapter<Quiz> reader = gson.getDelegateAdapter(this, TypeToken.get(Quiz.class));
+            return (TypeAdapter<T>) new QuizAdapter(gson, reader).nullSafe();
+        }
+        return null;
+    }
+
+    private static class LessonAdapter extends TypeAdapter<Lesson> {
+        private final Gson gson;
+        private final TypeAdapter<Lesson> reader;
+
+        LessonAdapter(Gson gson, TypeAdapter<Lesson> reader) {
+            this.gson = gson;
+            this.reader = reader;
+        }
+
+        @Override
+        public void write(JsonWriter out, Lesson lesson) throws IOException {
+            out.beginObject();
+            out.name("lessonId").value(lesson.getLessonId());
+            out.name("title").value(lesson.getTitle());
+            out.name("content").value(lesson.viewContent());
+            out.name("resources");
+            gson.getAdapter(new TypeToken<List<String>>(){}).write(out, lesson.viewResources());
+            out.name("quiz");
+            gson.getAdapter(Quiz.class).write(out, lesson.getQuiz());
+            out.endObject();
+        }
+
+        @Override
+        public Lesson read(JsonReader in) throws IOException {
+            return reader.read(in);
+        }
+    }
+
+    private static class QuizAdapter extends TypeAdapter<Quiz> {
+        private final Gson gson;
+        private final TypeAdapter<Quiz> reader;
+
+        QuizAdapter(Gson gson, TypeAdapter<Quiz> reader) {
+            this.gson = gson;
+            this.reader = reader;
+        }
+
+        @Override
+        public void write(JsonWriter out, Quiz quiz) throws IOException {
+            out.beginObject();
+            out.name("quizId").value(quiz.getQuizId());
+            out.name("questions");
+            gson.getAdapter(new TypeToken<List<Question>>(){}).write(out, quiz.viewQuestions());
+            out.name("passingScore").value(quiz.getPassingScore());
+            out.endObject();
+        }
+
+        @Override
+        public Quiz read(JsonReader in) throws IOException {
+            return reader.read(in);
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package database;
+
+import model.*;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+
+// Read-only file of lesson bodies (content, resources, quiz questions) that is
+// memory-mapped and decoded on demand. Layout:
+//   [magic][version][generation][index offset] [body records ...] [index]
+// where the index maps every lessonId to its body record offset, and the
+// generation is that of the course data the file was built from.
+public class MappedCourseCatalog implements LessonBodySource, Closeable {
+    private static final int MAGIC = 0x53464354; // "SFCT"
+    private static final int VERSION = 2;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final Map<String, Integer> offsetsByLesson;
+
+    private MappedCourseCatalog(FileChannel channel, MappedByteBuffer buffer, Map<String, Integer> offsetsByLesson) {
+        this.channel = channel;
+        this.buffer = buffer;
+        this.offsetsByLesson = offsetsByLesson;
+    }
+
+    public static void write(Path target, List<Course> courses, long generation) throws IOException {
+        Path temp = Files.createTempFile(target.toAbsolutePath().getParent(), target.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel out = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 * 1024);
+                DataOutputStream data = new DataOutputStream(bytes);
+                data.writeInt(MAGIC);
+                data.writeInt(VERSION);
+                data.writeLong(generation);
+                data.writeLong(0); // index offset, patched below
+
+                List<String> index = new ArrayList<>();
+                List<Integer> offsets = new ArrayList<>();
+                long position = 0;
+                for (Course c : courses) {
+                    for (Lesson l : c.getLessons()) {
+                        long offset = position + bytes.size();
+                        if (offset > Integer.MAX_VALUE) {
+                            throw new IOException("Catalog exceeds the 2 GB single-mapping limit");
+                        }
+                        index.add(l.getLessonId());
+                        offsets.add((int) offset);
+                        writeBody(data, l);
+                        if (bytes.size() >= 1024 * 1024) {
+                            position += drain(bytes, out);
+                        }
+                    }
+                }
+
+                long indexOffset = position + bytes.size();
+                data.writeInt(index.size());
+                for (int i = 0; i < index.size(); i++) {
+                    writeString(data, index.get(i));
+                    data.writeInt(offsets.get(i));
+                }
+                drain(bytes, out);
+
+                ByteBuffer header = ByteBuffer.allocate(8).putLong(indexOffset);
+                header.flip();
+                out.write(header, 16);
+                out.force(true);
+            }
+            try {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    // Reads only the header. Throws if the file is not a catalog in this format
+    public static long readGeneration(Path source) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(source)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("Not a SkillForge catalog: " + source);
+            }
+            return in.readLong();
+        }
+    }
+
+    public static MappedCourseCatalog open(Path source) throws IOException {
+        FileChannel channel = FileChannel.open(source, StandardOpenOption.READ);
+        try {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) throw new IOException("Catalog too large to map: " + size);
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+                throw new IOException("Not a SkillForge catalog: " + source);
+            }
+            ByteBuffer in = buffer.duplicate();
+            in.position((int) buffer.getLong(16));
+            int count = in.getInt();
+            Map<String, Integer> offsets = new HashMap<>(count * 2);
+            for (int i = 0; i < count; i++) {
+                String lessonId = readString(in);
+                offsets.put(lessonId, in.getInt());
+            }
+            return new MappedCourseCatalog(channel, buffer, offsets);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public String loadContent(String lessonId) {
+        ByteBuffer in = seek(lessonId);
+        return in == null ? null : readString(in);
+    }
+
+    @Override
+    public List<String> loadResources(String lessonId) {
+        ByteBuffer in = seek(lessonId);
+        if (in == null) return new ArrayList<>();
+        skipString(in);
+        return readStrings(in);
+    }
+
+    @Override
+    public List<Question> loadQuestions(String lessonId) {
+        ByteBuffer in = seek(lessonId);
+        List<Question> questions = new ArrayList<>();
+        if (in == null) return questions;
+        skipString(in);
+        int resourceCount = in.getInt();
+        for (int i = 0; i < resourceCount; i++) skipString(in);
+        int count = in.getInt();
+        for (int i = 0; i < count; i++) {
+            Question q = new Question();
+            q.setQuestionId(readString(in));
+            q.setQuestionText(readString(in));
+            q.setOptions(readStrings(in));
+            q.setCorrectAnswerIndex(in.getInt());
+            questions.add(q);
+        }
+        return questions;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private ByteBuffer seek(String lessonId) {
+        Integer offset = offsetsByLesson.get(lessonId);
+        if (offset == null) return null;
+        ByteBuffer in = buffer.duplicate();
+        in.position(offset);
+        return in;
+    }
+
+    private static void writeBody(DataOutputStream out, Lesson l) throws IOException {
+        writeString(out, l.viewContent());
+        List<String> resources = l.viewResources();
+        out.writeInt(resources == null ? 0 : resources.size());
+        if (resources != null) {
+            for (String r : resources) writeString(out, r);
+        }
+        List<Question> questions = l.getQuiz() != null ? l.getQuiz().viewQuestions() : Collections.emptyList();
+        out.writeInt(questions.size());
+        for (Question q : questions) {
+            writeString(out, q.getQuestionId());
+            writeString(out, q.getQuestionText());
+            List<String> options = q.getOptions();
+            out.writeInt(options.size());
+            for (String o : options) writeString(out, o);
+            out.writeInt(q.getCorrectAnswerIndex());
+        }
+    }
+
+    private static long drain(ByteArrayOutputStream bytes, FileChannel out) throws IOException {
+        ByteBuffer chunk = ByteBuffer.wrap(bytes.toByteArray());
+        long written = chunk.remaining();
+        while (chunk.hasRemaining()) {
+            out.write(chunk);
+        }
+        bytes.reset();
+        return written;
+    }
+
+    private static void writeString(DataOutputStream out, String s) throws IOException {
+        if (s == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] b = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(b.length);
+        out.write(b);
+    }
+
+    private static String readString(ByteBuffer in) {
+        int len = in.getInt();
+        if (len < 0) return null;
+        byte[] b = new byte[len];
+        in.get(b);
+        return new String(b, StandardCharsets.UTF_8);
+    }
+
+    private static void skipString(ByteBuffer in) {
+        int len = in.getInt();
+        if (len > 0) in.position(in.position() + len);
+    }
+
+    private static List<String> readStrings(ByteBuffer in) {
+        int n = in.getInt();
+        List<String> list = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) list.add(readString(in));
+        return list;
+    }
+}
@@ -0,0 +1,93 @@
+package database;
+
+import java.util.concurrent.*;
+
+public class PersistenceWriter {
+    public interface Sink {
+        void persist(boolean users, boolean courses) throws Exception;
+    }
+
+    private final Sink sink;
+    private final long coalesceMillis;
+    private final long maxStalenessMillis;
+    private final ScheduledExecutorService executor;
+    private boolean usersDirty;
+    private boolean coursesDirty;
+    private long firstDirtyAt;
+    private ScheduledFuture<?> pending;
+
+    public PersistenceWriter(Sink sink, long coalesceMillis, long maxStalenessMillis) {
+        this.sink = sink;
+        this.coalesceMillis = Math.max(0, coalesceMillis);
+        this.maxStalenessMillis = Math.max(this.coalesceMillis, maxStalenessMillis);
+        this.executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "skillforge-persistence");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    // Each mark pushes the write back by the coalescing window, but never past
+    // the staleness bound measured from the first unsaved change
+    public synchronized void markDirty(boolean users, boolean courses) {
+        if (executor.isShutdown()) return;
+        usersDirty |= users;
+        coursesDirty |= courses;
+        long now = System.currentTimeMillis();
+        if (pending == null) {
+            firstDirtyAt = now;
+        } else {
+            pending.cancel(false);
+        }
+        long delay = Math.max(0, Math.min(coalesceMillis, firstDirtyAt + maxStalenessMillis - now));
+        pending = executor.schedule(this::drain, delay, TimeUnit.MILLISECONDS);
+    }
+
+    public void flush() {
+        if (executor.isShutdown()) {
+            drain();
+            return;
+        }
+        try {
+            executor.submit(this::drain).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            e.getCause().printStackTrace();
+        }
+    }
+
+    public void shutdown() {
+        synchronized (this) {
+            executor.shutdown();
+        }
+        try {
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        drain();
+    }
+
+    private void drain() {
+        boolean users, courses;
+        synchronized (this) {
+            users = usersDirty;
+            courses = coursesDirty;
+            usersDirty = false;
+            coursesDirty = false;
+            pending = null;
+        }
+        if (!users && !courses) return;
+        try {
+            sink.persist(users, courses);
+        } catch (Exception e) {
+            e.printStackTrace();
+            synchronized (this) {
+                usersDirty |= users;
+                coursesDirty |= courses;
+            }
+            markDirty(false, false);
+        }
+    }
+}
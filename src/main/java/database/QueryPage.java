@@ -0,0 +1,21 @@
+package database;
+
+import java.util.List;
+
+// One window of a query result: the rows at positions offset.. of the full
+// ordered result, and how many rows the full result has
+public final class QueryPage<T> {
+    private final List<T> rows;
+    private final int offset;
+    private final int total;
+
+    QueryPage(List<T> rows, int offset, int total) {
+        this.rows = rows;
+        this.offset = offset;
+        this.total = total;
+    }
+
+    public List<T> getRows() { return rows; }
+    public int getOffset() { return offset; }
+    public int getTotal() { return total; }
+}
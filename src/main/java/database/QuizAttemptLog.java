@@ -0,0 +1,374 @@
+package database;
+
+import model.QuizAttempt;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Quiz attempt history kept apart from users.json, in primitive columns:
+// dictionary-coded student/course/lesson IDs, byte scores, epoch-second
+// timestamps and a passed bitset, with row indexes per student, course and
+// lesson. The file is append-only:
+//   [magic][version] then records, each either
+//   'D' code id          - assigns a dictionary code, written before first use
+//   'A' student course lesson score passed epochSecond
+// A torn record at the tail is cut off on open. An unreadable record before
+// the end is cut off too, after everything from it onwards is copied to
+// "<name>.corrupt" so the damaged attempts can still be recovered by hand.
+public class QuizAttemptLog implements Closeable {
+    private static final int MAGIC = 0x53464141; // "SFAA"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 8;
+    private static final byte DEFINE = 'D';
+    private static final byte ATTEMPT = 'A';
+
+    private final Path path;
+    private FileChannel channel;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final List<String> names = new ArrayList<>();
+    private final Map<String, Integer> codes = new HashMap<>();
+
+    private int size;
+    private int[] students = new int[256];
+    private int[] courses = new int[256];
+    private int[] lessons = new int[256];
+    private byte[] scores = new byte[256];
+    private long[] timestamps = new long[256];
+    private final BitSet passed = new BitSet();
+
+    private final RowIndex byStudent = new RowIndex();
+    private final RowIndex byCourse = new RowIndex();
+    private final RowIndex byLesson = new RowIndex();
+
+    private QuizAttemptLog(Path path) {
+        this.path = path;
+    }
+
+    public static QuizAttemptLog open(Path path) throws IOException {
+        QuizAttemptLog log = new QuizAttemptLog(path);
+        log.load();
+        return log;
+    }
+
+    // Keeps attempts for this run only; used when the file cannot be opened
+    public static QuizAttemptLog inMemory() {
+        return new QuizAttemptLog(null);
+    }
+
+    private void load() throws IOException {
+        boolean exists = Files.exists(path) && Files.size(path) >= HEADER_SIZE;
+        long valid = HEADER_SIZE;
+        boolean corrupt = false;
+        if (exists) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+                if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                    throw new IOException("Not a quiz attempt log: " + path);
+                }
+                try {
+                    while (true) {
+                        byte type = in.readByte();
+                        if (type == DEFINE) {
+                            int code = in.readInt();
+                            byte[] name = new byte[in.readUnsignedShort()];
+                            in.readFully(name);
+                            if (code != names.size()) throw new IOException("Out of order code " + code);
+                            define(new String(name, StandardCharsets.UTF_8));
+                            valid += 1 + 4 + 2 + name.length;
+                        } else if (type == ATTEMPT) {
+                            int student = in.readInt(), course = in.readInt(), lesson = in.readInt();
+                            byte score = in.readByte();
+                            boolean pass = in.readByte() != 0;
+                            long at = in.readLong();
+                            if (!isDefined(student) || !isDefined(course) || !isDefined(lesson)) {
+                                throw new IOException("Unknown code in attempt record");
+                            }
+                            addRow(student, course, lesson, score, pass, at);
+                            valid += 23;
+                        } else {
+                            throw new IOException("Unknown record type " + type);
+                        }
+                    }
+                } catch (EOFException e) {
+                    // End of file, possibly in the middle of a record from a crash
+                } catch (IOException e) {
+                    corrupt = true;
+                }
+            }
+        }
+        if (corrupt) {
+            saveRest(valid);
+        }
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        if (!exists) {
+            channel.truncate(0);
+            channel.write(ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).putInt(VERSION).flip(), 0);
+            channel.force(false);
+        } else if (channel.size() > valid) {
+            channel.truncate(valid);
+        }
+        channel.position(channel.size());
+    }
+
+    private boolean isDefined(int code) {
+        return code >= 0 && code < names.size();
+    }
+
+    private void saveRest(long from) throws IOException {
+        Path copy = path.resolveSibling(path.getFileName() + ".corrupt");
+        try (FileChannel in = FileChannel.open(path, StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(copy, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                     StandardOpenOption.TRUNCATE_EXISTING)) {
+            long position = from;
+            while (position < in.size()) {
+                position += in.transferTo(position, in.size() - position, out);
+            }
+            out.force(false);
+        }
+        System.err.println("Unreadable quiz attempt record at byte " + from + " of " + path
+                + "; the rest of the log was saved to " + copy);
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Durable once this returns
+    public void append(String studentId, QuizAttempt attempt) throws IOException {
+        appendAll(studentId, List.of(attempt));
+    }
+
+    public void appendAll(String studentId, List<QuizAttempt> attempts) throws IOException {
+        if (attempts.isEmpty()) return;
+        lock.writeLock().lock();
+        try {
+            int firstNewCode = names.size();
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(32 * attempts.size());
+            DataOutputStream out = new DataOutputStream(bytes);
+            int[][] rows = new int[attempts.size()][];
+            for (int i = 0; i < attempts.size(); i++) {
+                QuizAttempt a = attempts.get(i);
+                rows[i] = new int[]{
+                        codeFor(studentId, out), codeFor(a.getCourseId(), out), codeFor(a.getLessonId(), out)};
+                out.writeByte(ATTEMPT);
+                out.writeInt(rows[i][0]);
+                out.writeInt(rows[i][1]);
+                out.writeInt(rows[i][2]);
+                out.writeByte(toScoreByte(a.getScore()));
+                out.writeByte(a.isPassed() ? 1 : 0);
+                out.writeLong(toEpochSecond(a.getAttemptDate()));
+            }
+            try {
+                write(bytes);
+            } catch (IOException e) {
+                // Forget codes that never reached the file so they are defined again next time
+                while (names.size() > firstNewCode) {
+                    codes.remove(names.remove(names.size() - 1));
+                }
+                throw e;
+            }
+            for (int i = 0; i < attempts.size(); i++) {
+                QuizAttempt a = attempts.get(i);
+                addRow(rows[i][0], rows[i][1], rows[i][2], toScoreByte(a.getScore()), a.isPassed(),
+                        toEpochSecond(a.getAttemptDate()));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void write(ByteArrayOutputStream bytes) throws IOException {
+        if (channel == null) return;
+        ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+        long start = channel.position();
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        } catch (IOException e) {
+            // Leave no partial record behind for later appends to follow
+            channel.truncate(start);
+            channel.position(start);
+            throw e;
+        }
+    }
+
+    public List<QuizAttempt> findByStudent(String studentId) {
+        lock.readLock().lock();
+        try {
+            return materialize(byStudent, codes.get(studentId), -1);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<QuizAttempt> findByCourse(String courseId) {
+        lock.readLock().lock();
+        try {
+            return materialize(byCourse, codes.get(courseId), -1);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<QuizAttempt> findByLesson(String courseId, String lessonId) {
+        lock.readLock().lock();
+        try {
+            Integer course = codes.get(courseId);
+            if (course == null) return new ArrayList<>();
+            return materialize(byLesson, codes.get(lessonId), course);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Walks every attempt without building QuizAttempt objects
+    public void forEach(AttemptVisitor visitor) {
+        forEachInRange(0, Integer.MAX_VALUE, visitor);
+    }
+
+    // Rows [from, to) in append order; rows past the current size are skipped.
+    // Disjoint ranges can be walked from several threads at once
+    public void forEachInRange(int from, int to, AttemptVisitor visitor) {
+        lock.readLock().lock();
+        try {
+            int end = Math.min(to, size);
+            for (int row = Math.max(0, from); row < end; row++) {
+                visitor.visit(names.get(students[row]), names.get(courses[row]), names.get(lessons[row]),
+                        scores[row], passed.get(row), timestamps[row]);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public interface AttemptVisitor {
+        void visit(String studentId, String courseId, String lessonId, int score, boolean passed, long epochSecond);
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.writeLock().lock();
+        try {
+            if (channel != null) {
+                channel.close();
+                channel = null;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private List<QuizAttempt> materialize(RowIndex index, Integer code, int courseFilter) {
+        List<QuizAttempt> result = new ArrayList<>();
+        if (code == null) return result;
+        int count = index.count(code);
+        int[] rows = index.rows(code);
+        for (int i = 0; i < count; i++) {
+            int row = rows[i];
+            if (courseFilter >= 0 && courses[row] != courseFilter) continue;
+            QuizAttempt attempt = new QuizAttempt(names.get(lessons[row]), names.get(courses[row]),
+                    scores[row], passed.get(row));
+            attempt.setAttemptDate(LocalDateTime.ofEpochSecond(timestamps[row], 0, ZoneOffset.UTC));
+            result.add(attempt);
+        }
+        return result;
+    }
+
+    private int codeFor(String name, DataOutputStream out) throws IOException {
+        Integer code = codes.get(name);
+        if (code != null) return code;
+        int created = define(name);
+        out.writeByte(DEFINE);
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(created);
+        out.writeShort(bytes.length);
+        out.write(bytes);
+        return created;
+    }
+
+    private int define(String name) {
+        int code = names.size();
+        names.add(name);
+        codes.put(name, code);
+        return code;
+    }
+
+    private void addRow(int student, int course, int lesson, byte score, boolean pass, long at) {
+        if (size == scores.length) {
+            int capacity = size * 2;
+            students = Arrays.copyOf(students, capacity);
+            courses = Arrays.copyOf(courses, capacity);
+            lessons = Arrays.copyOf(lessons, capacity);
+            scores = Arrays.copyOf(scores, capacity);
+            timestamps = Arrays.copyOf(timestamps, capacity);
+        }
+        int row = size++;
+        students[row] = student;
+        courses[row] = course;
+        lessons[row] = lesson;
+        scores[row] = score;
+        timestamps[row] = at;
+        passed.set(row, pass);
+        byStudent.add(student, row);
+        byCourse.add(course, row);
+        byLesson.add(lesson, row);
+    }
+
+    // Scores are percentages, so they always fit in a byte
+    private static byte toScoreByte(int score) {
+        return (byte) Math.max(0, Math.min(100, score));
+    }
+
+    // The wall-clock time is stored as if it were UTC, matching the zone-less
+    // LocalDateTime the attempts carry elsewhere
+    private static long toEpochSecond(LocalDateTime time) {
+        return (time != null ? time : LocalDateTime.now()).toEpochSecond(ZoneOffset.UTC);
+    }
+
+    // Row numbers grouped by dictionary code, as growable int arrays
+    private static class RowIndex {
+        private int[][] rows = new int[0][];
+        private int[] counts = new int[0];
+
+        void add(int code, int row) {
+            if (code >= rows.length) {
+                int capacity = Math.max(code + 1, rows.length * 2);
+                rows = Arrays.copyOf(rows, capacity);
+                counts = Arrays.copyOf(counts, capacity);
+            }
+            int[] list = rows[code];
+            if (list == null) {
+                list = rows[code] = new int[4];
+            } else if (counts[code] == list.length) {
+                list = rows[code] = Arrays.copyOf(list, list.length * 2);
+            }
+            list[counts[code]++] = row;
+        }
+
+        int count(int code) {
+            return code < counts.length ? counts[code] : 0;
+        }
+
+        int[] rows(int code) {
+            return code < rows.length ? rows[code] : null;
+        }
+    }
+}
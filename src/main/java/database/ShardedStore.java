@@ -0,0 +1,121 @@
+package database;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.stream.Stream;
+
+// One JSON file per entity: <root>/<shard>/<id>.json, where the shard is the
+// last two digits of the id (USR1234 -> 34), so sequentially issued ids
+// spread evenly over 100 directories. Ids not ending in a digit are placed
+// by hash. Files found anywhere else (an earlier shard layout) are moved to
+// their shard on load, or deleted if the shard already has a newer copy
+class ShardedStore<T> {
+    interface EntityReader<T> {
+        T read(Reader in) throws IOException;
+    }
+
+    interface EntityWriter<T> {
+        void write(Path target, T entity) throws IOException;
+    }
+
+    private static final String EXTENSION = ".json";
+    private static final int SHARD_COUNT = 100;
+
+    private final Path root;
+    private final EntityReader<T> reader;
+    private final EntityWriter<T> writer;
+
+    ShardedStore(Path root, EntityReader<T> reader, EntityWriter<T> writer) {
+        this.root = root;
+        this.reader = reader;
+        this.writer = writer;
+    }
+
+    boolean exists() {
+        return Files.isDirectory(root);
+    }
+
+    List<String> listIds() throws IOException {
+        List<String> ids = new ArrayList<>();
+        for (Path file : listFiles()) {
+            String name = file.getFileName().toString();
+            ids.add(name.substring(0, name.length() - EXTENSION.length()));
+        }
+        return ids;
+    }
+
+    T load(String id) throws IOException {
+        Path file = pathFor(id);
+        if (!Files.exists(file)) return null;
+        return read(file);
+    }
+
+    List<T> loadAll() throws IOException {
+        relocateMisplaced();
+        List<T> result = new ArrayList<>();
+        for (Path file : listFiles()) {
+            T entity = read(file);
+            if (entity != null) result.add(entity);
+        }
+        return result;
+    }
+
+    // Writes only ever go to pathFor, so where both exist the misplaced file is the stale one
+    private void relocateMisplaced() throws IOException {
+        for (Path file : listFiles()) {
+            String name = file.getFileName().toString();
+            Path expected = pathFor(name.substring(0, name.length() - EXTENSION.length()));
+            if (file.equals(expected)) continue;
+            if (Files.exists(expected)) {
+                Files.delete(file);
+            } else {
+                Files.createDirectories(expected.getParent());
+                Files.move(file, expected, StandardCopyOption.ATOMIC_MOVE);
+            }
+        }
+    }
+
+    private List<Path> listFiles() throws IOException {
+        List<Path> files = new ArrayList<>();
+        if (!exists()) return files;
+        try (Stream<Path> walk = Files.walk(root, 2)) {
+            walk.filter(p -> p.getFileName().toString().endsWith(EXTENSION))
+                    .filter(Files::isRegularFile)
+                    .forEach(files::add);
+        }
+        files.sort(Comparator.comparing(p -> p.getFileName().toString()));
+        return files;
+    }
+
+    private T read(Path file) throws IOException {
+        try (Reader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            return reader.read(in);
+        }
+    }
+
+    void save(String id, T entity) throws IOException {
+        Path file = pathFor(id);
+        Files.createDirectories(file.getParent());
+        writer.write(file, entity);
+    }
+
+    void delete(String id) throws IOException {
+        Files.deleteIfExists(pathFor(id));
+    }
+
+    Path pathFor(String id) {
+        return root.resolve(shardOf(id)).resolve(id + EXTENSION);
+    }
+
+    static String shardOf(String id) {
+        int length = id.length();
+        if (length >= 1 && Character.isDigit(id.charAt(length - 1))) {
+            if (length >= 2 && Character.isDigit(id.charAt(length - 2))) return id.substring(length - 2);
+            return "0" + id.charAt(length - 1);
+        }
+        int shard = Math.floorMod(id.hashCode(), SHARD_COUNT);
+        return shard < 10 ? "0" + shard : Integer.toString(shard);
+    }
+}
@@ -0,0 +1,59 @@
+package database;
+
+public final class StorageConfig {
+    private StorageConfig() {}
+
+    public static boolean isWalEnabled() {
+        return Boolean.parseBoolean(System.getProperty("skillforge.wal", "true"));
+    }
+
+    public static int getWalCheckpointRecords() {
+        return Integer.getInteger("skillforge.wal.checkpointRecords", 500);
+    }
+
+    public static int getWalSyncBatchSize() {
+        return Integer.getInteger("skillforge.wal.syncBatch", 16);
+    }
+
+    public static long getWalSyncIntervalMillis() {
+        return Long.getLong("skillforge.wal.syncIntervalMs", 200L);
+    }
+
+    public static boolean isPrettyPrintEnabled() {
+        return Boolean.parseBoolean(System.getProperty("skillforge.json.pretty", "true"));
+    }
+
+    public static boolean isAsyncWriteEnabled() {
+        return Boolean.parseBoolean(System.getProperty("skillforge.async", "true"));
+    }
+
+    public static long getAsyncCoalesceMillis() {
+        return Long.getLong("skillforge.async.coalesceMs", 250L);
+    }
+
+    public static long getAsyncMaxStalenessMillis() {
+        return Long.getLong("skillforge.async.maxStalenessMs", 2000L);
+    }
+
+    public static boolean isShardedLayout() {
+        return "sharded".equalsIgnoreCase(System.getProperty("skillforge.storage", "single"));
+    }
+
+    public static boolean isBinarySnapshotEnabled() {
+        return Boolean.parseBoolean(System.getProperty("skillforge.binarySnapshot", "false"));
+    }
+
+    public static boolean isMappedCatalogEnabled() {
+        return Boolean.parseBoolean(System.getProperty("skillforge.mappedCatalog", "false"));
+    }
+
+    public static int getLessonCacheSize() {
+        return Integer.getInteger("skillforge.lessonCache.size", 32);
+    }
+
+    // Size of the ID ranges reserved in the shared id-blocks file; 0 disables
+    // reservation and numbers are counted per process
+    public static int getIdBlockSize() {
+        return Integer.getInteger("skillforge.ids.blockSize", 32);
+    }
+}
@@ -0,0 +1,101 @@
+package database;
+
+import model.Course;
+import model.User;
+
+import java.util.*;
+
+// A unit of work over several users and courses. Stage each entity before
+// editing it: staging takes a copy of the stored state, which a failed commit or
+// an explicit rollback copies back into the staged and stored objects. Commit
+// applies everything in one step and persists it as one durable write.
+//
+// Hold the monitor of every entity you stage while you stage, edit and commit
+// it (users before courses), so two writers never edit one entity at once:
+//
+//   synchronized (student) {
+//       synchronized (course) {
+//           Transaction tx = db.beginTransaction().stageUser(student).stageCourse(course);
+//           student.enrollInCourse(courseId);
+//           course.addStudent(studentId);
+//           tx.commit();
+//       }
+//   }
+public class Transaction {
+    private final JsonDatabaseManager db;
+    final Map<String, User> users = new LinkedHashMap<>();
+    final Map<String, Course> courses = new LinkedHashMap<>();
+    final Set<String> deletedCourseIds = new LinkedHashSet<>();
+    // Stored state at staging time; a null value means the entity is new
+    final Map<String, User> userBeforeImages = new HashMap<>();
+    final Map<String, Course> courseBeforeImages = new HashMap<>();
+    // Stored objects this commit replaced or deleted, put back if it fails
+    final Map<String, User> displacedUsers = new HashMap<>();
+    final Map<String, Course> displacedCourses = new HashMap<>();
+    private boolean finished;
+
+    Transaction(JsonDatabaseManager db) {
+        this.db = db;
+    }
+
+    public Transaction stageUser(User user) {
+        checkOpen();
+        String id = user.getUserId();
+        if (!userBeforeImages.containsKey(id)) {
+            userBeforeImages.put(id, db.copyOfStoredUser(id));
+        }
+        users.put(id, user);
+        return this;
+    }
+
+    public Transaction stageCourse(Course course) {
+        checkOpen();
+        String id = course.getCourseId();
+        if (deletedCourseIds.contains(id)) {
+            throw new IllegalStateException("Course " + id + " is already staged for deletion");
+        }
+        stageCourseImage(id);
+        courses.put(id, course);
+        return this;
+    }
+
+    public Transaction deleteCourse(String courseId) {
+        checkOpen();
+        if (courses.containsKey(courseId)) {
+            throw new IllegalStateException("Course " + courseId + " is already staged for update");
+        }
+        stageCourseImage(courseId);
+        deletedCourseIds.add(courseId);
+        return this;
+    }
+
+    private void stageCourseImage(String courseId) {
+        if (!courseBeforeImages.containsKey(courseId)) {
+            courseBeforeImages.put(courseId, db.copyOfStoredCourse(courseId));
+        }
+    }
+
+    public boolean isEmpty() {
+        return users.isEmpty() && courses.isEmpty() && deletedCourseIds.isEmpty();
+    }
+
+    // Throws TransactionException if the write fails, by which time the stored
+    // state has been rolled back to the staged copies
+    public void commit() {
+        checkOpen();
+        finished = true;
+        db.commit(this);
+    }
+
+    // Discards the transaction and restores the stored state captured at
+    // staging, undoing in-place edits made to the staged entities
+    public void rollback() {
+        checkOpen();
+        finished = true;
+        db.rollback(this);
+    }
+
+    private void checkOpen() {
+        if (finished) throw new IllegalStateException("Transaction already finished");
+    }
+}
@@ -0,0 +1,9 @@
+package database;
+
+public class TransactionException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    public TransactionException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
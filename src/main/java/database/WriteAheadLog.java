@@ -0,0 +1,304 @@
+package database;
+
+import com.google.gson.*;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+public class WriteAheadLog implements Closeable {
+    public static final String USER_UPSERT = "USER_UPSERT";
+    public static final String COURSE_UPSERT = "COURSE_UPSERT";
+    public static final String COURSE_DELETE = "COURSE_DELETE";
+    // Several records written as one line, so replay sees all of them or none
+    static final String BATCH = "BATCH";
+
+    private final Path logPath;
+    private final Path rotatedPath;
+    private final int syncBatchSize;
+    private final long syncIntervalMillis;
+    private FileChannel channel;
+    private int recordCount;
+    private int unsyncedCount;
+    private long lastSyncTime;
+    // Syncs records left unsynced when appends stop before the interval is up
+    private ScheduledExecutorService syncTimer;
+    private ScheduledFuture<?> pendingSync;
+
+    public WriteAheadLog(Path logPath, int syncBatchSize, long syncIntervalMillis) {
+        this.logPath = logPath;
+        this.rotatedPath = logPath.resolveSibling(logPath.getFileName() + ".1");
+        this.syncBatchSize = Math.max(1, syncBatchSize);
+        this.syncIntervalMillis = syncIntervalMillis;
+        this.lastSyncTime = System.currentTimeMillis();
+    }
+
+    // Replays the sealed segment, then the current one. If the sealed segment
+    // holds an unreadable line, the current one is not replayed on top of the
+    // gap: it is set aside next to the damaged copy and replay stops there
+    public synchronized int replay(Consumer<Record> consumer) throws IOException {
+        int[] replayed = {0};
+        Consumer<Record> counting = record -> {
+            consumer.accept(record);
+            replayed[0]++;
+        };
+        if (replayFile(rotatedPath, counting)) {
+            replayFile(logPath, counting);
+        } else if (Files.exists(logPath)) {
+            Path copy = logPath.resolveSibling(logPath.getFileName() + ".skipped");
+            Files.move(logPath, copy, StandardCopyOption.REPLACE_EXISTING);
+            System.err.println("Not replaying " + logPath + " because " + rotatedPath
+                    + " is damaged; it was saved to " + copy);
+        }
+        recordCount = replayed[0];
+        return replayed[0];
+    }
+
+    // Replays complete lines up to the first torn or unreadable one, then cuts
+    // the file there so later appends start on a fresh line instead of being
+    // glued onto the broken one. Returns false if a complete line was
+    // unreadable, as opposed to a torn tail left by a crash mid-write
+    private boolean replayFile(Path path, Consumer<Record> consumer) throws IOException {
+        if (!Files.exists(path)) return true;
+        long goodEnd = 0;
+        long size = Files.size(path);
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(path))) {
+            ByteArrayOutputStream line = new ByteArrayOutputStream();
+            long offset = 0;
+            int b;
+            while ((b = in.read()) != -1) {
+                offset++;
+                if (b != '\n') {
+                    line.write(b);
+                    continue;
+                }
+                String text = line.toString(StandardCharsets.UTF_8);
+                line.reset();
+                if (!text.isBlank()) {
+                    List<Record> records = parseLine(text);
+                    if (records == null) break;
+                    for (Record record : records) {
+                        consumer.accept(record);
+                    }
+                }
+                goodEnd = offset;
+            }
+        }
+        return goodEnd >= size || !cutAt(path, goodEnd);
+    }
+
+    private static List<Record> parseLine(String line) {
+        List<Record> records = new ArrayList<>();
+        try {
+            JsonObject obj = JsonParser.parseString(line).getAsJsonObject();
+            if (obj.get("op").getAsString().equals(BATCH)) {
+                for (JsonElement e : obj.getAsJsonArray("data")) {
+                    records.add(toRecord(e.getAsJsonObject()));
+                }
+            } else {
+                records.add(toRecord(obj));
+            }
+            return records;
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    // Returns true if the cut-off part held a complete line, which is then
+    // kept in a ".corrupt" copy; a torn tail is simply dropped
+    private static boolean cutAt(Path path, long goodEnd) throws IOException {
+        byte[] rest;
+        boolean corrupt;
+        try (FileChannel ch = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(Integer.MAX_VALUE - 8, ch.size() - goodEnd));
+            while (buffer.hasRemaining() && ch.read(buffer, goodEnd + buffer.position()) > 0) {
+                // keep reading until the tail is fully in the buffer
+            }
+            rest = Arrays.copyOf(buffer.array(), buffer.position());
+            corrupt = indexOf(rest, (byte) '\n') >= 0;
+            if (corrupt) {
+                Path copy = path.resolveSibling(path.getFileName() + ".corrupt");
+                Files.write(copy, rest);
+                System.err.println("Unreadable WAL entry at byte " + goodEnd + " of " + path
+                        + "; the rest of the log was saved to " + copy);
+            }
+            ch.truncate(goodEnd);
+            ch.force(true);
+        }
+        return corrupt;
+    }
+
+    private static int indexOf(byte[] bytes, byte value) {
+        for (int i = 0; i < bytes.length; i++) {
+            if (bytes[i] == value) return i;
+        }
+        return -1;
+    }
+
+    private static Record toRecord(JsonObject obj) {
+        return new Record(obj.get("op").getAsString(), obj.get("id").getAsString(), obj.get("data"));
+    }
+
+    private static JsonObject toJson(Record record) {
+        JsonObject obj = new JsonObject();
+        obj.addProperty("op", record.getOp());
+        obj.addProperty("id", record.getId());
+        if (record.getData() != null) {
+            obj.add("data", record.getData());
+        }
+        return obj;
+    }
+
+    public synchronized void append(String op, String id, JsonElement data) throws IOException {
+        appendAll(List.of(new Record(op, id, data)), false);
+    }
+
+    // Writes the records as a single line and counts them as one unit towards
+    // the sync policy, so a multi-entity change costs at most one fsync and is
+    // replayed atomically. forceSync makes the write durable before returning
+    public synchronized void appendAll(List<Record> records, boolean forceSync) throws IOException {
+        if (records.isEmpty()) return;
+        JsonObject line;
+        if (records.size() == 1) {
+            line = toJson(records.get(0));
+        } else {
+            JsonArray batch = new JsonArray();
+            for (Record record : records) {
+                batch.add(toJson(record));
+            }
+            line = new JsonObject();
+            line.addProperty("op", BATCH);
+            line.addProperty("id", String.valueOf(records.size()));
+            line.add("data", batch);
+        }
+        ByteBuffer buffer = ByteBuffer.wrap((line + "\n").getBytes(StandardCharsets.UTF_8));
+        FileChannel ch = openChannel();
+        long start = ch.size();
+        try {
+            while (buffer.hasRemaining()) {
+                ch.write(buffer);
+            }
+        } catch (IOException e) {
+            // Leave no partial line behind for the next append to run into
+            ch.truncate(start);
+            throw e;
+        }
+        recordCount += records.size();
+        unsyncedCount++;
+        long now = System.currentTimeMillis();
+        if (forceSync || unsyncedCount >= syncBatchSize || now - lastSyncTime >= syncIntervalMillis) {
+            sync();
+        } else if (pendingSync == null) {
+            pendingSync = timer().schedule(this::timedSync, lastSyncTime + syncIntervalMillis - now,
+                    TimeUnit.MILLISECONDS);
+        }
+    }
+
+    public synchronized void sync() throws IOException {
+        if (channel != null && unsyncedCount > 0) {
+            channel.force(false);
+        }
+        unsyncedCount = 0;
+        lastSyncTime = System.currentTimeMillis();
+    }
+
+    private synchronized void timedSync() {
+        pendingSync = null;
+        try {
+            sync();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private ScheduledExecutorService timer() {
+        if (syncTimer == null) {
+            syncTimer = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "skillforge-wal-sync");
+                t.setDaemon(true);
+                return t;
+            });
+        }
+        return syncTimer;
+    }
+
+    // Seals the current log so a checkpoint can snapshot state without blocking
+    // appends. If an earlier checkpoint failed, the old sealed segment is kept and
+    // the current records are appended to it.
+    public synchronized void rotate() throws IOException {
+        if (channel != null) {
+            sync();
+            channel.close();
+            channel = null;
+        }
+        if (Files.exists(logPath)) {
+            if (Files.exists(rotatedPath)) {
+                Files.write(rotatedPath, Files.readAllBytes(logPath), StandardOpenOption.APPEND);
+                Files.delete(logPath);
+            } else {
+                Files.move(logPath, rotatedPath, StandardCopyOption.ATOMIC_MOVE);
+            }
+        }
+        recordCount = 0;
+    }
+
+    public synchronized void discardRotated() throws IOException {
+        Files.deleteIfExists(rotatedPath);
+    }
+
+    synchronized int getUnsyncedCount() {
+        return unsyncedCount;
+    }
+
+    public synchronized int getRecordCount() {
+        return recordCount;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (channel != null) {
+            sync();
+            channel.close();
+            channel = null;
+        }
+        if (syncTimer != null) {
+            syncTimer.shutdownNow();
+            syncTimer = null;
+            pendingSync = null;
+        }
+    }
+
+    private FileChannel openChannel() throws IOException {
+        if (channel == null) {
+            channel = FileChannel.open(logPath, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        }
+        return channel;
+    }
+
+    public static class Record {
+        private final String op;
+        private final String id;
+        private final JsonElement data;
+
+        public Record(String op, String id, JsonElement data) {
+            this.op = op;
+            this.id = id;
+            this.data = data;
+        }
+
+        public String getOp() { return op; }
+        public String getId() { return id; }
+        public JsonElement getData() { return data; }
+    }
+}
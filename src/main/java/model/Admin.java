@@ -11,6 +11,15 @@ public class Admin extends User {
         super(userId, Role.ADMIN, username, email, passwordHash);
     }
 
+    private Admin(Admin source) {
+        super(source);
+    }
+
+    @Override
+    public Admin copyState() {
+        return new Admin(this);
+    }
+
     @Override
     public String getDashboardTitle() {
         return "Admin Dashboard - " + username;
@@ -29,6 +29,25 @@ public class Course {
         this.instructorId = instructorId;
     }
 
+    // Copies the fields, roster and lesson list without sharing either list.
+    // The lessons themselves are shared, since transactions never edit them
+    public Course copyState() {
+        Course copy = new Course(courseId, title, description, instructorId);
+        copy.approvalStatus = approvalStatus;
+        copy.createdAt = createdAt;
+        copy.students = new ArrayList<>(students);
+        copy.lessons = new ArrayList<>(lessons);
+        return copy;
+    }
+
+    // As copyState, but each lesson is copied as well, so the copy can be read
+    // while the lessons of this course are being edited
+    public Course copyContents() {
+        Course copy = copyState();
+        copy.lessons.replaceAll(Lesson::copy);
+        return copy;
+    }
+
     public String getCourseId() { return courseId; }
     public void setCourseId(String courseId) { this.courseId = courseId; }
 
@@ -88,6 +107,18 @@ public class Course {
         return students.size();
     }
 
+    // Overwrites this course's state with a saved copy of it, so that everyone
+    // holding this object sees edits undone in place
+    public void restoreFrom(Course saved) {
+        this.title = saved.title;
+        this.description = saved.description;
+        this.instructorId = saved.instructorId;
+        this.approvalStatus = saved.approvalStatus;
+        this.createdAt = saved.createdAt;
+        this.students = saved.students;
+        this.lessons = saved.lessons;
+    }
+
     public boolean isApproved() {
         return approvalStatus == ApprovalStatus.APPROVED;
     }
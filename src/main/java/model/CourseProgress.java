@@ -11,6 +11,11 @@ public class CourseProgress {
         this.completedLessons = new ArrayList<>();
     }
 
+    public CourseProgress(CourseProgress source) {
+        this.completedLessons = new ArrayList<>(source.completedLessons);
+        this.currentLessonId = source.currentLessonId;
+    }
+
     public List<String> getCompletedLessons() { return completedLessons; }
     public void setCompletedLessons(List<String> completedLessons) {
         this.completedLessons = completedLessons;
@@ -17,6 +17,11 @@ public class Instructor extends User {
         this.createdCourses = new ArrayList<>();
     }
 
+    private Instructor(Instructor source) {
+        super(source);
+        this.createdCourses = source.createdCourses != null ? new ArrayList<>(source.createdCourses) : null;
+    }
+
     public List<String> getCreatedCourses() { return createdCourses; }
     public void setCreatedCourses(List<String> createdCourses) { this.createdCourses = createdCourses; }
 
@@ -30,6 +35,19 @@ public class Instructor extends User {
         createdCourses.remove(courseId);
     }
 
+    @Override
+    public void restoreFrom(User saved) {
+        super.restoreFrom(saved);
+        if (saved instanceof Instructor instructor) {
+            this.createdCourses = instructor.createdCourses;
+        }
+    }
+
+    @Override
+    public Instructor copyState() {
+        return new Instructor(this);
+    }
+
     @Override
     public String getDashboardTitle() {
         return "Instructor Dashboard - " + username;
@@ -2,6 +2,7 @@ package model;
 
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 public class Lesson {
@@ -10,6 +11,7 @@ public class Lesson {
     private String content;
     private List<String> resources;
     private Quiz quiz;
+    private transient LessonBodySource bodySource;
 
     public Lesson() {
         this.resources = new ArrayList<>();
@@ -22,27 +24,77 @@ public class Lesson {
         this.resources = new ArrayList<>();
     }
 
+    // Shares the body strings, or the source of a detached body, so copying
+    // never loads anything
+    public Lesson copy() {
+        Lesson copy = new Lesson(lessonId, title, content);
+        copy.resources = resources != null ? new ArrayList<>(resources) : null;
+        copy.quiz = quiz != null ? quiz.copy() : null;
+        copy.bodySource = bodySource;
+        return copy;
+    }
+
     public String getLessonId() { return lessonId; }
     public void setLessonId(String lessonId) { this.lessonId = lessonId; }
 
     public String getTitle() { return title; }
     public void setTitle(String title) { this.title = title; }
 
-    public String getContent() { return content; }
+    // A detached body is decoded from its source on every call rather than kept on the lesson
+    public String getContent() {
+        if (content == null && bodySource != null) {
+            return bodySource.loadContent(lessonId);
+        }
+        return content;
+    }
     public void setContent(String content) { this.content = content; }
 
-    public List<String> getResources() { return resources; }
+    public List<String> getResources() {
+        if (resources == null && bodySource != null) {
+            resources = new ArrayList<>(bodySource.loadResources(lessonId));
+        }
+        return resources;
+    }
     public void setResources(List<String> resources) { this.resources = resources; }
 
+    // Read-only access for serializers: a detached body is decoded straight from
+    // the uncached source and neither kept on the lesson nor put in the cache
+    public String viewContent() {
+        if (content == null && bodySource != null) {
+            return bodySource.uncached().loadContent(lessonId);
+        }
+        return content;
+    }
+
+    public List<String> viewResources() {
+        if (resources == null && bodySource != null) {
+            return Collections.unmodifiableList(bodySource.uncached().loadResources(lessonId));
+        }
+        return resources == null ? null : Collections.unmodifiableList(resources);
+    }
+
     public Quiz getQuiz() { return quiz; }
     public void setQuiz(Quiz quiz) { this.quiz = quiz; }
 
     public void addResource(String resource) {
-        resources.add(resource);
+        getResources().add(resource);
     }
 
     public void removeResource(String resource) {
-        resources.remove(resource);
+        getResources().remove(resource);
+    }
+
+    public void detachBody(LessonBodySource source) {
+        this.bodySource = source;
+        this.content = null;
+        this.resources = null;
+        if (quiz != null) {
+            quiz.detachQuestions(source, lessonId);
+        }
+    }
+
+    public boolean isBodyLoaded() {
+        return bodySource == null || content != null;
     }
 
     public boolean hasQuiz() {
@@ -0,0 +1,17 @@
+package model;
+
+import java.util.List;
+
+public interface LessonBodySource {
+    String loadContent(String lessonId);
+
+    List<String> loadResources(String lessonId);
+
+    List<Question> loadQuestions(String lessonId);
+
+    // The source to read from when the body is only being copied somewhere,
+    // so a caching source is not filled with lessons nobody opened
+    default LessonBodySource uncached() {
+        return this;
+    }
+}
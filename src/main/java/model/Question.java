@@ -20,6 +20,11 @@ public class Question {
         this.correctAnswerIndex = correctAnswerIndex;
     }
 
+    public Question copy() {
+        return new Question(questionId, questionText, options != null ? new ArrayList<>(options) : null,
+                correctAnswerIndex);
+    }
+
     public String getQuestionId() { return questionId; }
     public void setQuestionId(String questionId) { this.questionId = questionId; }
 
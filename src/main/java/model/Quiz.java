@@ -1,12 +1,16 @@
 package model;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 public class Quiz {
     private String quizId;
     private List<Question> questions;
     private int passingScore;
+    private transient LessonBodySource questionSource;
+    private transient String sourceLessonId;
+    private transient int detachedQuestionCount;
 
     public Quiz() {
         this.questions = new ArrayList<>();
@@ -19,24 +23,58 @@ public class Quiz {
         this.passingScore = passingScore;
     }
 
+    public Quiz copy() {
+        Quiz copy = new Quiz(quizId, null, passingScore);
+        if (questions != null) {
+            copy.questions = new ArrayList<>(questions.size());
+            for (Question q : questions) copy.questions.add(q.copy());
+        }
+        copy.questionSource = questionSource;
+        copy.sourceLessonId = sourceLessonId;
+        copy.detachedQuestionCount = detachedQuestionCount;
+        return copy;
+    }
+
     public String getQuizId() { return quizId; }
     public void setQuizId(String quizId) { this.quizId = quizId; }
 
-    public List<Question> getQuestions() { return questions; }
+    // Materializes detached questions so callers may edit them in place
+    public List<Question> getQuestions() {
+        if (questions == null && questionSource != null) {
+            questions = new ArrayList<>(questionSource.loadQuestions(sourceLessonId));
+        }
+        return questions;
+    }
     public void setQuestions(List<Question> questions) { this.questions = questions; }
 
     public int getPassingScore() { return passingScore; }
     public void setPassingScore(int passingScore) { this.passingScore = passingScore; }
 
+    // Read-only view that decodes detached questions without keeping them on the quiz
+    public List<Question> viewQuestions() {
+        if (questions == null && questionSource != null) {
+            return Collections.unmodifiableList(questionSource.loadQuestions(sourceLessonId));
+        }
+        return Collections.unmodifiableList(questions);
+    }
+
+    public void detachQuestions(LessonBodySource source, String lessonId) {
+        this.detachedQuestionCount = getQuestionCount();
+        this.questionSource = source;
+        this.sourceLessonId = lessonId;
+        this.questions = null;
+    }
+
     public void addQuestion(Question question) {
-        questions.add(question);
+        getQuestions().add(question);
     }
 
     public void removeQuestion(String questionId) {
-        questions.removeIf(q -> q.getQuestionId().equals(questionId));
+        getQuestions().removeIf(q -> q.getQuestionId().equals(questionId));
     }
 
     public int calculateScore(List<Integer> answers) {
+        List<Question> questions = viewQuestions();
         if (questions.isEmpty()) return 100;
 
         int correct = 0;
@@ -53,6 +91,6 @@ public class Quiz {
     }
 
     public int getQuestionCount() {
-        return questions.size();
+        return questions != null ? questions.size() : detachedQuestionCount;
     }
 }
\ No newline at end of file
@@ -11,6 +11,15 @@ public class Student extends User {
         super(userId, Role.STUDENT, username, email, passwordHash);
     }
 
+    private Student(Student source) {
+        super(source);
+    }
+
+    @Override
+    public Student copyState() {
+        return new Student(this);
+    }
+
     @Override
     public String getDashboardTitle() {
         return "Student Dashboard - " + username;
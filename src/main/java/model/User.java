@@ -33,6 +33,29 @@ public abstract class User {
         this.passwordHash = passwordHash;
     }
 
+    // Copies source's state without sharing any collection that is edited in
+    // place. Quiz attempts and certificates are never changed once recorded,
+    // so the copied lists hold the same entries
+    protected User(User source) {
+        this.userId = source.userId;
+        this.role = source.role;
+        this.username = source.username;
+        this.email = source.email;
+        this.passwordHash = source.passwordHash;
+        this.createdAt = source.createdAt;
+        this.enrolledCourses = copyOf(source.enrolledCourses);
+        if (source.progress != null) {
+            this.progress = new HashMap<>();
+            source.progress.forEach((courseId, p) -> progress.put(courseId, new CourseProgress(p)));
+        }
+        this.quizAttempts = copyOf(source.quizAttempts);
+        this.certificates = copyOf(source.certificates);
+    }
+
+    private static <T> List<T> copyOf(List<T> list) {
+        return list != null ? new ArrayList<>(list) : null;
+    }
+
     // Getters and Setters
     public String getUserId() { return userId; }
     public void setUserId(String userId) { this.userId = userId; }
@@ -79,5 +102,21 @@ public abstract class User {
         certificates.add(certificate);
     }
 
+    // Overwrites this user's state with a saved copy of it, so that everyone
+    // holding this object sees edits undone in place
+    public void restoreFrom(User saved) {
+        this.role = saved.role;
+        this.username = saved.username;
+        this.email = saved.email;
+        this.passwordHash = saved.passwordHash;
+        this.createdAt = saved.createdAt;
+        this.enrolledCourses = saved.enrolledCourses;
+        this.progress = saved.progress;
+        this.quizAttempts = saved.quizAttempts;
+        this.certificates = saved.certificates;
+    }
+
+    public abstract User copyState();
+
     public abstract String getDashboardTitle();
 }
\ No newline at end of file
@@ -0,0 +1,376 @@
+package server;
+
+import auth.AuthService;
+import com.google.gson.*;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import model.*;
+import server.RequestExecutor.Operation;
+import service.*;
+
+import java.io.*;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+
+// Headless JSON API over the same services and auth singleton the Swing
+// client uses. Requests run through a RequestExecutor for admission control.
+// Every request except login carries "Authorization: Bearer <token>"
+public class ApiServer {
+    private static final int MAX_BODY_BYTES = 64 * 1024;
+
+    private final HttpServer server;
+    private final RequestExecutor requests;
+    private final CatalogService catalog = CatalogService.getInstance();
+    private final AuthService auth = AuthService.getInstance();
+
+    public ApiServer(int port, RequestExecutor requests) throws IOException {
+        this.requests = requests;
+        server = HttpServer.create(new InetSocketAddress(port), 0);
+        server.setExecutor(requests);
+        server.createContext("/api/login", wrap(ex -> Operation.LOGIN, this::login));
+        server.createContext("/api/logout", wrap(ex -> Operation.WRITE, this::logout));
+        server.createContext("/api/courses", wrap(ApiServer::classifyCourseRequest, this::courses));
+        server.createContext("/api/certificates", wrap(ex -> Operation.READ, this::certificates));
+        server.createContext("/api/metrics", wrap(ex -> Operation.READ, this::metrics));
+    }
+
+    private static Operation classifyCourseRequest(HttpExchange ex) {
+        if (!"POST".equalsIgnoreCase(ex.getRequestMethod())) return Operation.READ;
+        return ex.getRequestURI().getPath().endsWith("/quiz") ? Operation.QUIZ_SUBMISSION : Operation.WRITE;
+    }
+
+    public static int getPort() {
+        return Integer.getInteger("skillforge.http.port", 8080);
+    }
+
+    public static void main(String[] args) throws IOException {
+        System.setProperty("java.awt.headless", "true");
+        ApiServer api = new ApiServer(getPort(), RequestExecutor.fromSystemProperties());
+        Runtime.getRuntime().addShutdownHook(new Thread(api::stop, "skillforge-http-shutdown"));
+        api.start();
+        System.out.println("SkillForge API listening on port " + api.getBoundPort());
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public void stop() {
+        server.stop(1);
+        requests.shutdown();
+    }
+
+    public int getBoundPort() {
+        return server.getAddress().getPort();
+    }
+
+    // POST /api/login {"email","password"}
+    private JsonElement login(HttpExchange ex) throws IOException {
+        requireMethod(ex, "POST");
+        JsonObject body = readBody(ex);
+        AuthService.AuthResult result = auth.createSession(string(body, "email"), string(body, "password"),
+                ex.getRemoteAddress().getAddress().getHostAddress());
+        if (!result.isSuccess()) {
+            if (result.isRetryable()) {
+                ex.getResponseHeaders().set("Retry-After", "10");
+                throw new ApiException(429, result.getMessage());
+            }
+            throw new ApiException(401, result.getMessage());
+        }
+        JsonObject json = userJson(result.getUser());
+        json.addProperty("token", result.getSessionToken());
+        return json;
+    }
+
+    // POST /api/logout
+    private JsonElement logout(HttpExchange ex) {
+        requireMethod(ex, "POST");
+        auth.logout(token(ex));
+        return new JsonObject();
+    }
+
+    // GET  /api/courses
+    // GET  /api/courses/{courseId}
+    // POST /api/courses/{courseId}/enroll
+    // POST /api/courses/{courseId}/lessons/{lessonId}/complete
+    // POST /api/courses/{courseId}/lessons/{lessonId}/quiz {"answers":[...]}
+    // The route and method are checked before the session, so unknown resources
+    // answer 404/405 whether or not the caller is signed in
+    private JsonElement courses(HttpExchange ex) throws IOException {
+        String[] parts = pathParts(ex, "/api/courses");
+        if (parts.length == 0) {
+            requireMethod(ex, "GET");
+            requireStudent(ex);
+            JsonArray array = new JsonArray();
+            for (Course c : catalog.getApprovedCourses()) {
+                array.add(courseSummaryJson(c));
+            }
+            return array;
+        }
+
+        String courseId = parts[0];
+        if (parts.length == 1) {
+            requireMethod(ex, "GET");
+            Student student = requireStudent(ex);
+            return courseDetailJson(catalog.getApprovedCourse(courseId), student);
+        }
+        if (parts.length == 2 && parts[1].equals("enroll")) {
+            requireMethod(ex, "POST");
+            Student student = requireStudent(ex);
+            return courseSummaryJson(EnrollmentService.getInstance().enroll(student, courseId));
+        }
+        if (parts.length == 4 && parts[1].equals("lessons") && parts[3].equals("complete")) {
+            requireMethod(ex, "POST");
+            Student student = requireStudent(ex);
+            ProgressService.CompletionResult result =
+                    ProgressService.getInstance().completeLesson(student, courseId, parts[2]);
+            return progressJson(result.getCompletedLessons(), result.getTotalLessons(), result.getCertificate());
+        }
+        if (parts.length == 4 && parts[1].equals("lessons") && parts[3].equals("quiz")) {
+            requireMethod(ex, "POST");
+            Student student = requireStudent(ex);
+            QuizService.QuizResult result =
+                    QuizService.getInstance().submit(student, courseId, parts[2], readAnswers(readBody(ex)));
+            JsonObject json = progressJson(result.getCompletedLessons(), result.getTotalLessons(),
+                    result.getCertificate());
+            json.addProperty("score", result.getScore());
+            json.addProperty("passed", result.isPassed());
+            json.addProperty("passingScore", result.getPassingScore());
+            return json;
+        }
+        throw new ApiException(404, "Unknown resource");
+    }
+
+    // GET /api/certificates
+    private JsonElement certificates(HttpExchange ex) {
+        requireMethod(ex, "GET");
+        Student student = requireStudent(ex);
+        JsonArray array = new JsonArray();
+        for (Certificate c : ProgressService.getInstance().getCertificates(student)) {
+            array.add(certificateJson(c));
+        }
+        return array;
+    }
+
+    private static List<Integer> readAnswers(JsonObject body) {
+        JsonElement answersJson = body.get("answers");
+        if (answersJson == null || !answersJson.isJsonArray()) {
+            throw new ApiException(400, "answers must be an array of option indexes");
+        }
+        List<Integer> answers = new ArrayList<>();
+        try {
+            for (JsonElement e : answersJson.getAsJsonArray()) {
+                answers.add(e.getAsInt());
+            }
+        } catch (RuntimeException e) {
+            throw new ApiException(400, "answers must be an array of option indexes");
+        }
+        return answers;
+    }
+
+    // GET /api/metrics, admins only
+    private JsonElement metrics(HttpExchange ex) {
+        requireMethod(ex, "GET");
+        requireAdmin(ex);
+        RequestExecutor.Metrics m = requests.getMetrics();
+        JsonObject json = new JsonObject();
+        json.addProperty("virtualThreads", m.isVirtualThreads());
+        json.addProperty("admitted", m.getAdmitted());
+        json.addProperty("admissionCapacity", m.getAdmissionCapacity());
+        json.addProperty("queueDepth", m.getQueueDepth());
+        json.addProperty("queueCapacity", m.getQueueCapacity());
+        json.addProperty("maxQueueDepth", m.getMaxQueueDepth());
+        json.addProperty("queueRejected", m.getQueueRejected());
+        json.addProperty("rejected", m.getTotalRejected());
+        json.addProperty("activeSessions", auth.getActiveSessionCount());
+        JsonObject ops = new JsonObject();
+        for (Operation op : Operation.values()) {
+            JsonObject o = new JsonObject();
+            o.addProperty("limit", m.getLimit(op));
+            o.addProperty("inFlight", m.getInFlight(op));
+            o.addProperty("waiting", m.getWaiting(op));
+            o.addProperty("completed", m.getCompleted(op));
+            o.addProperty("rejected", m.getRejected(op));
+            ops.add(op.name(), o);
+        }
+        json.add("operations", ops);
+        return json;
+    }
+
+    private Student requireStudent(HttpExchange ex) {
+        User user = auth.getSessionUser(token(ex));
+        if (user == null) throw new ApiException(401, "Missing or expired session");
+        if (!(user instanceof Student student)) throw new ApiException(403, "Students only");
+        return student;
+    }
+
+    private Admin requireAdmin(HttpExchange ex) {
+        User user = auth.getSessionUser(token(ex));
+        if (user == null) throw new ApiException(401, "Missing or expired session");
+        if (!(user instanceof Admin admin)) throw new ApiException(403, "Admins only");
+        return admin;
+    }
+
+    private static String token(HttpExchange ex) {
+        String header = ex.getRequestHeaders().getFirst("Authorization");
+        if (header == null || !header.startsWith("Bearer ")) return null;
+        return header.substring("Bearer ".length()).trim();
+    }
+
+    private static void requireMethod(HttpExchange ex, String method) {
+        if (!method.equalsIgnoreCase(ex.getRequestMethod())) {
+            throw new ApiException(405, "Use " + method);
+        }
+    }
+
+    private static String[] pathParts(HttpExchange ex, String prefix) {
+        String path = ex.getRequestURI().getPath().substring(prefix.length());
+        return Arrays.stream(path.split("/")).filter(s -> !s.isEmpty()).toArray(String[]::new);
+    }
+
+    // Reads at most MAX_BODY_BYTES + 1 so an oversized body is refused without buffering it
+    private static JsonObject readBody(HttpExchange ex) throws IOException {
+        byte[] bytes = ex.getRequestBody().readNBytes(MAX_BODY_BYTES + 1);
+        if (bytes.length > MAX_BODY_BYTES) throw new ApiException(413, "Request body too large");
+        try {
+            JsonElement body = JsonParser.parseString(new String(bytes, StandardCharsets.UTF_8));
+            if (body.isJsonNull()) return new JsonObject();
+            if (!body.isJsonObject()) throw new ApiException(400, "Expected a JSON object");
+            return body.getAsJsonObject();
+        } catch (JsonParseException e) {
+            throw new ApiException(400, "Malformed JSON");
+        }
+    }
+
+    private static String string(JsonObject body, String name) {
+        JsonElement e = body.get(name);
+        return e != null && e.isJsonPrimitive() ? e.getAsString() : null;
+    }
+
+    private static JsonObject userJson(User user) {
+        JsonObject json = new JsonObject();
+        json.addProperty("userId", user.getUserId());
+        json.addProperty("username", user.getUsername());
+        json.addProperty("role", user.getRole().name());
+        return json;
+    }
+
+    private static JsonObject courseSummaryJson(Course c) {
+        JsonObject json = new JsonObject();
+        json.addProperty("courseId", c.getCourseId());
+        json.addProperty("title", c.getTitle());
+        json.addProperty("description", c.getDescription());
+        json.addProperty("instructorId", c.getInstructorId());
+        json.addProperty("lessonCount", c.getLessonCount());
+        json.addProperty("studentCount", c.getStudents().size());
+        return json;
+    }
+
+    private static JsonObject courseDetailJson(Course c, Student student) {
+        JsonObject json = courseSummaryJson(c);
+        json.addProperty("enrolled", student.getEnrolledCourses().contains(c.getCourseId()));
+        JsonArray lessons = new JsonArray();
+        for (Lesson l : c.getLessons()) {
+            JsonObject lesson = new JsonObject();
+            lesson.addProperty("lessonId", l.getLessonId());
+            lesson.addProperty("title", l.getTitle());
+            lesson.addProperty("completed", student.hasCompletedLesson(c.getCourseId(), l.getLessonId()));
+            if (l.getQuiz() != null) {
+                lesson.addProperty("quizQuestions", l.getQuiz().getQuestionCount());
+                lesson.addProperty("passingScore", l.getQuiz().getPassingScore());
+            }
+            lessons.add(lesson);
+        }
+        json.add("lessons", lessons);
+        return json;
+    }
+
+    private static JsonObject progressJson(int completed, int total, Certificate certificate) {
+        JsonObject progress = new JsonObject();
+        progress.addProperty("completed", completed);
+        progress.addProperty("total", total);
+        JsonObject json = new JsonObject();
+        json.add("progress", progress);
+        if (certificate != null) json.add("certificate", certificateJson(certificate));
+        return json;
+    }
+
+    private static JsonObject certificateJson(Certificate c) {
+        JsonObject json = new JsonObject();
+        json.addProperty("certificateId", c.getCertificateId());
+        json.addProperty("courseId", c.getCourseId());
+        json.addProperty("courseTitle", c.getCourseTitle());
+        json.addProperty("studentName", c.getStudentName());
+        json.addProperty("issueDate", c.getIssueDate() != null ? c.getIssueDate().toString() : null);
+        return json;
+    }
+
+    private interface Route {
+        JsonElement handle(HttpExchange ex) throws IOException;
+    }
+
+    private interface Classifier {
+        Operation classify(HttpExchange ex);
+    }
+
+    private HttpHandler wrap(Classifier classifier, Route route) {
+        return ex -> {
+            int status = 200;
+            JsonElement body;
+            try {
+                body = requests.call(classifier.classify(ex), () -> route.handle(ex));
+            } catch (ApiException e) {
+                status = e.status;
+                body = error(e.getMessage());
+            } catch (ServiceException e) {
+                status = switch (e.getReason()) {
+                    case NOT_FOUND -> 404;
+                    case FORBIDDEN -> 403;
+                    case INVALID -> 400;
+                    case FAILED -> 500;
+                };
+                body = error(e.getMessage());
+            } catch (RejectedExecutionException e) {
+                status = 503;
+                body = error(e.getMessage());
+                ex.getResponseHeaders().set("Retry-After", "1");
+            } catch (IOException e) {
+                throw e;
+            } catch (Exception e) {
+                e.printStackTrace();
+                status = 500;
+                body = error("Internal error");
+            }
+            send(ex, status, body);
+        };
+    }
+
+    private static JsonObject error(String message) {
+        JsonObject json = new JsonObject();
+        json.addProperty("error", message);
+        return json;
+    }
+
+    private static void send(HttpExchange ex, int status, JsonElement body) throws IOException {
+        byte[] bytes = body.toString().getBytes(StandardCharsets.UTF_8);
+        ex.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        ex.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = ex.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    static class ApiException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        private final int status;
+
+        ApiException(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+}
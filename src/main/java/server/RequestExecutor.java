@@ -0,0 +1,244 @@
+package server;
+
+import java.lang.reflect.Method;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Runs user actions with two layers of backpressure: a global admission bound
+// on requests in the system, then a per-operation permit pool so that e.g. a
+// burst of logins cannot starve quiz submissions. Requests that cannot get in
+// are rejected immediately instead of piling up behind blocking file I/O.
+// Without virtual threads the request pool has a bounded queue; exchanges it
+// turns away are run on a single reject thread, where call() refuses them at
+// once so the client gets its 503 without holding a request thread
+public class RequestExecutor implements Executor {
+    public enum Operation { LOGIN, QUIZ_SUBMISSION, WRITE, READ }
+
+    private static final ThreadLocal<Boolean> REJECTING = new ThreadLocal<>();
+
+    private final ExecutorService threads;
+    private final ThreadPoolExecutor rejects;
+    private final BlockingQueue<Runnable> queue;
+    private final boolean virtualThreads;
+    private final Semaphore admission;
+    private final int admissionCapacity;
+    private final long permitWaitMillis;
+    private final Map<Operation, Semaphore> permits = new EnumMap<>(Operation.class);
+    private final Map<Operation, Integer> limits = new EnumMap<>(Operation.class);
+    private final Map<Operation, AtomicInteger> waiting = new EnumMap<>(Operation.class);
+    private final Map<Operation, AtomicLong> rejected = new EnumMap<>(Operation.class);
+    private final Map<Operation, AtomicLong> completed = new EnumMap<>(Operation.class);
+    private final AtomicInteger maxQueueDepth = new AtomicInteger();
+    private final AtomicLong queueRejected = new AtomicLong();
+
+    public RequestExecutor(int admissionCapacity, long permitWaitMillis, Map<Operation, Integer> operationLimits,
+                           int fallbackThreads, int fallbackQueue) {
+        this.admissionCapacity = Math.max(1, admissionCapacity);
+        this.admission = new Semaphore(this.admissionCapacity);
+        this.permitWaitMillis = Math.max(0, permitWaitMillis);
+        for (Operation op : Operation.values()) {
+            int limit = Math.max(1, operationLimits.getOrDefault(op, this.admissionCapacity));
+            limits.put(op, limit);
+            permits.put(op, new Semaphore(limit, true));
+            waiting.put(op, new AtomicInteger());
+            rejected.put(op, new AtomicLong());
+            completed.put(op, new AtomicLong());
+        }
+        ExecutorService virtual = newVirtualThreadExecutor();
+        virtualThreads = virtual != null;
+        rejects = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, fallbackQueue)), daemon("skillforge-reject"),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        if (virtual != null) {
+            threads = virtual;
+            queue = null;
+        } else {
+            int n = Math.max(1, fallbackThreads);
+            queue = new ArrayBlockingQueue<>(Math.max(1, fallbackQueue));
+            threads = new ThreadPoolExecutor(n, n, 0L, TimeUnit.MILLISECONDS, queue,
+                    daemon("skillforge-request"), (r, pool) -> reject(r));
+        }
+    }
+
+    private static ThreadFactory daemon(String name) {
+        return r -> {
+            Thread t = new Thread(r, name);
+            t.setDaemon(true);
+            return t;
+        };
+    }
+
+    // The exchange still has to be read and answered, so it runs where call()
+    // refuses it. If even the reject queue is full, the dispatcher does that
+    // itself, which slows accepting new connections until the backlog clears
+    private void reject(Runnable exchange) {
+        if (threads.isShutdown()) throw new RejectedExecutionException("Shutting down");
+        queueRejected.incrementAndGet();
+        rejects.execute(() -> {
+            REJECTING.set(Boolean.TRUE);
+            try {
+                exchange.run();
+            } finally {
+                REJECTING.remove();
+            }
+        });
+    }
+
+    public static RequestExecutor fromSystemProperties() {
+        int cores = Runtime.getRuntime().availableProcessors();
+        Map<Operation, Integer> limits = new EnumMap<>(Operation.class);
+        limits.put(Operation.LOGIN, Integer.getInteger("skillforge.exec.limit.login", cores * 2));
+        limits.put(Operation.QUIZ_SUBMISSION, Integer.getInteger("skillforge.exec.limit.quiz", 64));
+        limits.put(Operation.WRITE, Integer.getInteger("skillforge.exec.limit.write", 32));
+        limits.put(Operation.READ, Integer.getInteger("skillforge.exec.limit.read", 256));
+        return new RequestExecutor(
+                Integer.getInteger("skillforge.exec.queue", 1024),
+                Long.getLong("skillforge.exec.permitWaitMs", 2000L),
+                limits,
+                Integer.getInteger("skillforge.http.threads", cores * 8),
+                Integer.getInteger("skillforge.http.queue", 256));
+    }
+
+    // Executors.newVirtualThreadPerTaskExecutor() exists from Java 21 on; the
+    // build targets 17, so it is looked up at runtime
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    public boolean isUsingVirtualThreads() {
+        return virtualThreads;
+    }
+
+    // Thread source for the HTTP dispatcher; admission is applied per request
+    // inside the handler via call(), where the route is known
+    @Override
+    public void execute(Runnable command) {
+        threads.execute(command);
+        if (queue != null) maxQueueDepth.accumulateAndGet(queue.size(), Math::max);
+    }
+
+    // Runs the task on the calling thread once it is admitted and holds a
+    // permit for its operation. Throws RejectedExecutionException when the
+    // system is full or no permit frees up within the wait bound
+    public <T> T call(Operation op, Callable<T> task) throws Exception {
+        if (REJECTING.get() != null) {
+            rejected.get(op).incrementAndGet();
+            throw new RejectedExecutionException("Server busy");
+        }
+        if (!admission.tryAcquire()) {
+            rejected.get(op).incrementAndGet();
+            throw new RejectedExecutionException("Server busy");
+        }
+        try {
+            Semaphore opPermits = permits.get(op);
+            if (!opPermits.tryAcquire()) {
+                if (!awaitPermit(op, opPermits)) {
+                    rejected.get(op).incrementAndGet();
+                    throw new RejectedExecutionException("Too many concurrent " + op + " requests");
+                }
+            }
+            try {
+                return task.call();
+            } finally {
+                opPermits.release();
+                completed.get(op).incrementAndGet();
+            }
+        } finally {
+            admission.release();
+        }
+    }
+
+    private boolean awaitPermit(Operation op, Semaphore opPermits) throws InterruptedException {
+        waiting.get(op).incrementAndGet();
+        try {
+            return opPermits.tryAcquire(permitWaitMillis, TimeUnit.MILLISECONDS);
+        } finally {
+            waiting.get(op).decrementAndGet();
+        }
+    }
+
+    // Asynchronous form for callers that are not already on a request thread
+    public <T> CompletableFuture<T> submit(Operation op, Callable<T> task) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        try {
+            threads.execute(() -> {
+                try {
+                    future.complete(call(op, task));
+                } catch (Throwable t) {
+                    future.completeExceptionally(t);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.get(op).incrementAndGet();
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    public Metrics getMetrics() {
+        return new Metrics(this);
+    }
+
+    public void shutdown() {
+        threads.shutdown();
+        rejects.shutdown();
+    }
+
+    public static class Metrics {
+        private final boolean virtualThreads;
+        private final int admitted;
+        private final int admissionCapacity;
+        private final int queueDepth;
+        private final int queueCapacity;
+        private final int maxQueueDepth;
+        private final long queueRejected;
+        private final Map<Operation, Integer> limits;
+        private final Map<Operation, Integer> inFlight = new EnumMap<>(Operation.class);
+        private final Map<Operation, Integer> waiting = new EnumMap<>(Operation.class);
+        private final Map<Operation, Long> rejected = new EnumMap<>(Operation.class);
+        private final Map<Operation, Long> completed = new EnumMap<>(Operation.class);
+
+        private Metrics(RequestExecutor e) {
+            virtualThreads = e.virtualThreads;
+            admissionCapacity = e.admissionCapacity;
+            admitted = e.admissionCapacity - e.admission.availablePermits();
+            queueDepth = e.queue != null ? e.queue.size() : 0;
+            queueCapacity = e.queue != null ? queueDepth + e.queue.remainingCapacity() : 0;
+            maxQueueDepth = e.maxQueueDepth.get();
+            queueRejected = e.queueRejected.get();
+            limits = new EnumMap<>(e.limits);
+            for (Operation op : Operation.values()) {
+                inFlight.put(op, e.limits.get(op) - e.permits.get(op).availablePermits());
+                waiting.put(op, e.waiting.get(op).get());
+                rejected.put(op, e.rejected.get(op).get());
+                completed.put(op, e.completed.get(op).get());
+            }
+        }
+
+        public boolean isVirtualThreads() { return virtualThreads; }
+        public int getAdmitted() { return admitted; }
+        public int getAdmissionCapacity() { return admissionCapacity; }
+        // Exchanges waiting for a request thread; always 0 on virtual threads
+        public int getQueueDepth() { return queueDepth; }
+        public int getQueueCapacity() { return queueCapacity; }
+        public int getMaxQueueDepth() { return maxQueueDepth; }
+        public long getQueueRejected() { return queueRejected; }
+        public int getLimit(Operation op) { return limits.get(op); }
+        public int getInFlight(Operation op) { return inFlight.get(op); }
+        public int getWaiting(Operation op) { return waiting.get(op); }
+        public long getRejected(Operation op) { return rejected.get(op); }
+        public long getCompleted(Operation op) { return completed.get(op); }
+
+        public long getTotalRejected() {
+            return rejected.values().stream().mapToLong(Long::longValue).sum();
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package service;
+
+import database.JsonDatabaseManager;
+import database.Transaction;
+import model.*;
+import utils.IdGenerator;
+
+import java.util.List;
+
+public class CatalogService {
+    private static CatalogService instance;
+    private final JsonDatabaseManager db;
+
+    private CatalogService() {
+        db = JsonDatabaseManager.getInstance();
+    }
+
+    public static synchronized CatalogService getInstance() {
+        if (instance == null) {
+            instance = new CatalogService();
+        }
+        return instance;
+    }
+
+    public List<Course> getApprovedCourses() {
+        return db.getApprovedCourses();
+    }
+
+    public Course getCourse(String courseId) {
+        Course course = db.findCourseById(courseId);
+        if (course == null) {
+            throw new ServiceException(ServiceException.Reason.NOT_FOUND, "Course not found");
+        }
+        return course;
+    }
+
+    // Students only ever see approved courses; anything else looks missing
+    public Course getApprovedCourse(String courseId) {
+        Course course = db.findCourseById(courseId);
+        if (course == null || course.getApprovalStatus() != ApprovalStatus.APPROVED) {
+            throw new ServiceException(ServiceException.Reason.NOT_FOUND, "Course not found");
+        }
+        return course;
+    }
+
+    static Lesson requireLesson(Course course, String lessonId) {
+        Lesson lesson = course.getLessonById(lessonId);
+        if (lesson == null) {
+            throw new ServiceException(ServiceException.Reason.NOT_FOUND, "Lesson not found");
+        }
+        return lesson;
+    }
+
+    // New course and the instructor's created-course list are one transaction
+    public Course createCourse(Instructor instructor, String title, String description) {
+        Course course = new Course(IdGenerator.generateCourseId(), title, description, instructor.getUserId());
+        synchronized (instructor) {
+            Transaction tx = db.beginTransaction().stageUser(instructor).stageCourse(course);
+            instructor.addCreatedCourse(course.getCourseId());
+            ServiceTransactions.commit(tx);
+        }
+        return course;
+    }
+
+    public void setApprovalStatus(String courseId, ApprovalStatus status) {
+        Course course = getCourse(courseId);
+        synchronized (course) {
+            Transaction tx = db.beginTransaction().stageCourse(course);
+            course.setApprovalStatus(status);
+            ServiceTransactions.commit(tx);
+        }
+    }
+
+    // Removes the course and detaches it from its instructor in one transaction
+    public void deleteCourse(String courseId) {
+        Course course = getCourse(courseId);
+        User instructor = db.findUserById(course.getInstructorId());
+        if (!(instructor instanceof Instructor owner)) {
+            ServiceTransactions.commit(db.beginTransaction().deleteCourse(courseId));
+            CourseAnalytics.getInstance().forgetCourse(courseId);
+            return;
+        }
+        synchronized (owner) {
+            Transaction tx = db.beginTransaction().stageUser(owner).deleteCourse(courseId);
+            owner.removeCreatedCourse(courseId);
+            ServiceTransactions.commit(tx);
+        }
+        CourseAnalytics.getInstance().forgetCourse(courseId);
+    }
+}
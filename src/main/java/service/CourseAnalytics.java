@@ -0,0 +1,176 @@
+package service;
+
+import database.JsonDatabaseManager;
+import model.*;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+// Per-lesson completion counts and quiz score sums/counts/histograms, kept up
+// to date by the services as attempts and completions are committed, so the
+// analytics views read them in O(lessons) instead of scanning every student.
+// The aggregates are built from one full scan on first use; from then on only
+// the deltas are applied
+public class CourseAnalytics {
+    public static final int HISTOGRAM_BUCKETS = 10;
+
+    private static CourseAnalytics instance;
+    private final JsonDatabaseManager db;
+    private final Map<String, Map<String, LessonStats>> courses = new ConcurrentHashMap<>();
+    // Updates hold the read lock from mutation through commit to recording, and
+    // the initial scan holds the write lock, so the scan never sees a change
+    // whose delta is still to come
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile boolean built;
+
+    private CourseAnalytics() {
+        db = JsonDatabaseManager.getInstance();
+    }
+
+    public static synchronized CourseAnalytics getInstance() {
+        if (instance == null) {
+            instance = new CourseAnalytics();
+        }
+        return instance;
+    }
+
+    public CourseStats getCourseStats(Course course) {
+        ensureBuilt();
+        Map<String, LessonStats> lessons = courses.getOrDefault(course.getCourseId(), Map.of());
+        Map<String, LessonSummary> summaries = new LinkedHashMap<>();
+        for (Lesson l : course.getLessons()) {
+            LessonStats stats = lessons.get(l.getLessonId());
+            summaries.put(l.getLessonId(), stats != null ? stats.summary() : LessonSummary.EMPTY);
+        }
+        return new CourseStats(summaries);
+    }
+
+    // Runs a service mutation so that it is either fully visible to the initial
+    // scan or recorded afterwards as a delta, never both
+    <T> T update(Supplier<T> work) {
+        lock.readLock().lock();
+        try {
+            return work.get();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Until the first read there is nothing to maintain; the scan will see it
+    void recordAttempt(String courseId, String lessonId, int score) {
+        if (built) statsFor(courseId, lessonId).addScore(score);
+    }
+
+    void recordCompletion(String courseId, String lessonId) {
+        if (built) statsFor(courseId, lessonId).addCompletion();
+    }
+
+    void forgetCourse(String courseId) {
+        courses.remove(courseId);
+    }
+
+    private LessonStats statsFor(String courseId, String lessonId) {
+        return courses.computeIfAbsent(courseId, k -> new ConcurrentHashMap<>())
+                .computeIfAbsent(lessonId, k -> new LessonStats());
+    }
+
+    private void ensureBuilt() {
+        if (built) return;
+        lock.writeLock().lock();
+        try {
+            if (built) return;
+            for (Student student : db.getAllStudents()) {
+                for (Map.Entry<String, CourseProgress> e : student.getProgress().entrySet()) {
+                    for (String lessonId : e.getValue().getCompletedLessons()) {
+                        statsFor(e.getKey(), lessonId).addCompletion();
+                    }
+                }
+            }
+            db.getAttemptLog().forEach((studentId, courseId, lessonId, score, passed, epochSecond) ->
+                    statsFor(courseId, lessonId).addScore(score));
+            built = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static class LessonStats {
+        private int completions;
+        private int attempts;
+        private long scoreSum;
+        private final int[] histogram = new int[HISTOGRAM_BUCKETS];
+
+        synchronized void addCompletion() {
+            completions++;
+        }
+
+        synchronized void addScore(int score) {
+            attempts++;
+            scoreSum += score;
+            histogram[bucketOf(score)]++;
+        }
+
+        synchronized LessonSummary summary() {
+            return new LessonSummary(completions, attempts, scoreSum, histogram.clone());
+        }
+    }
+
+    // Scores are percentages; 100 shares the top bucket with 90-99
+    static int bucketOf(int score) {
+        int bucket = score * HISTOGRAM_BUCKETS / 100;
+        return Math.max(0, Math.min(HISTOGRAM_BUCKETS - 1, bucket));
+    }
+
+    public static class LessonSummary {
+        static final LessonSummary EMPTY = new LessonSummary(0, 0, 0, new int[HISTOGRAM_BUCKETS]);
+
+        private final int completions;
+        private final int attempts;
+        private final long scoreSum;
+        private final int[] histogram;
+
+        LessonSummary(int completions, int attempts, long scoreSum, int[] histogram) {
+            this.completions = completions;
+            this.attempts = attempts;
+            this.scoreSum = scoreSum;
+            this.histogram = histogram;
+        }
+
+        public int getCompletions() { return completions; }
+        public int getAttempts() { return attempts; }
+        public long getScoreSum() { return scoreSum; }
+        public int getHistogramBucket(int bucket) { return histogram[bucket]; }
+
+        public double getAverageScore() {
+            return attempts > 0 ? (double) scoreSum / attempts : 0;
+        }
+    }
+
+    public static class CourseStats {
+        private final Map<String, LessonSummary> lessons;
+
+        CourseStats(Map<String, LessonSummary> lessons) {
+            this.lessons = Collections.unmodifiableMap(lessons);
+        }
+
+        public LessonSummary getLesson(String lessonId) {
+            return lessons.getOrDefault(lessonId, LessonSummary.EMPTY);
+        }
+
+        public int getTotalCompletions() {
+            return lessons.values().stream().mapToInt(LessonSummary::getCompletions).sum();
+        }
+
+        public double getAverageScore() {
+            long sum = 0;
+            int attempts = 0;
+            for (LessonSummary s : lessons.values()) {
+                sum += s.getScoreSum();
+                attempts += s.getAttempts();
+            }
+            return attempts > 0 ? (double) sum / attempts : 0;
+        }
+    }
+}
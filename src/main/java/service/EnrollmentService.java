@@ -0,0 +1,49 @@
+package service;
+
+import database.JsonDatabaseManager;
+import database.Transaction;
+import model.*;
+
+public class EnrollmentService {
+    private static EnrollmentService instance;
+    private final JsonDatabaseManager db;
+
+    private EnrollmentService() {
+        db = JsonDatabaseManager.getInstance();
+    }
+
+    public static synchronized EnrollmentService getInstance() {
+        if (instance == null) {
+            instance = new EnrollmentService();
+        }
+        return instance;
+    }
+
+    // Student and course rosters are updated together in one transaction.
+    // Enrolling twice is a no-op
+    public Course enroll(Student student, String courseId) {
+        Course course = CatalogService.getInstance().getApprovedCourse(courseId);
+        synchronized (student) {
+            synchronized (course) {
+                if (student.getEnrolledCourses().contains(courseId)) {
+                    return course;
+                }
+                Transaction tx = db.beginTransaction().stageUser(student).stageCourse(course);
+                student.enrollInCourse(courseId);
+                course.addStudent(student.getUserId());
+                ServiceTransactions.commit(tx);
+            }
+        }
+        return course;
+    }
+
+    public boolean isEnrolled(Student student, String courseId) {
+        return student.getEnrolledCourses().contains(courseId);
+    }
+
+    static void requireEnrolled(Student student, String courseId) {
+        if (!student.getEnrolledCourses().contains(courseId)) {
+            throw new ServiceException(ServiceException.Reason.FORBIDDEN, "Not enrolled in this course");
+        }
+    }
+}
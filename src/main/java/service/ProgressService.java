@@ -0,0 +1,86 @@
+package service;
+
+import database.JsonDatabaseManager;
+import database.Transaction;
+import model.*;
+import utils.IdGenerator;
+
+import java.util.List;
+
+public class ProgressService {
+    private static ProgressService instance;
+    private final JsonDatabaseManager db;
+
+    private ProgressService() {
+        db = JsonDatabaseManager.getInstance();
+    }
+
+    public static synchronized ProgressService getInstance() {
+        if (instance == null) {
+            instance = new ProgressService();
+        }
+        return instance;
+    }
+
+    // Marks the lesson complete and, if that finishes the course, issues the
+    // certificate in the same transaction
+    public CompletionResult completeLesson(Student student, String courseId, String lessonId) {
+        Course course = CatalogService.getInstance().getApprovedCourse(courseId);
+        Lesson lesson = CatalogService.requireLesson(course, lessonId);
+        EnrollmentService.requireEnrolled(student, courseId);
+        CourseAnalytics analytics = CourseAnalytics.getInstance();
+        synchronized (student) {
+            return analytics.update(() -> {
+                Transaction tx = db.beginTransaction().stageUser(student);
+                boolean newlyCompleted = !student.hasCompletedLesson(courseId, lesson.getLessonId());
+                student.markLessonComplete(courseId, lesson.getLessonId());
+                Certificate certificate = issueCertificateIfComplete(student, course);
+                ServiceTransactions.commit(tx);
+                if (newlyCompleted) analytics.recordCompletion(courseId, lesson.getLessonId());
+                return new CompletionResult(getCompletedCount(student, courseId), course.getLessonCount(), certificate);
+            });
+        }
+    }
+
+    public int getCompletedCount(Student student, String courseId) {
+        CourseProgress progress = student.getProgress().get(courseId);
+        return progress != null ? progress.getCompletionCount() : 0;
+    }
+
+    public List<Certificate> getCertificates(Student student) {
+        synchronized (student) {
+            return List.copyOf(student.getCertificates());
+        }
+    }
+
+    // Adds the certificate to the student without saving; callers fold it
+    // into their own transaction. Returns null if the course is not yet complete
+    // or was already certified
+    Certificate issueCertificateIfComplete(Student student, Course course) {
+        int total = course.getLessonCount();
+        if (total == 0 || getCompletedCount(student, course.getCourseId()) != total
+                || student.hasCertificateForCourse(course.getCourseId())) {
+            return null;
+        }
+        Certificate cert = new Certificate(IdGenerator.generateCertificateId(), student.getUserId(),
+                course.getCourseId(), course.getTitle(), student.getUsername());
+        student.addCertificate(cert);
+        return cert;
+    }
+
+    public static class CompletionResult {
+        private final int completedLessons;
+        private final int totalLessons;
+        private final Certificate certificate;
+
+        public CompletionResult(int completedLessons, int totalLessons, Certificate certificate) {
+            this.completedLessons = completedLessons;
+            this.totalLessons = totalLessons;
+            this.certificate = certificate;
+        }
+
+        public int getCompletedLessons() { return completedLessons; }
+        public int getTotalLessons() { return totalLessons; }
+        public Certificate getCertificate() { return certificate; }
+    }
+}
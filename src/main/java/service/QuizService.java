@@ -0,0 +1,100 @@
+package service;
+
+import database.JsonDatabaseManager;
+import database.Transaction;
+import model.*;
+
+import java.io.IOException;
+import java.util.List;
+
+public class QuizService {
+    private static QuizService instance;
+    private final JsonDatabaseManager db;
+
+    private QuizService() {
+        db = JsonDatabaseManager.getInstance();
+    }
+
+    public static synchronized QuizService getInstance() {
+        if (instance == null) {
+            instance = new QuizService();
+        }
+        return instance;
+    }
+
+    // Grades the answers, appends the attempt to the attempt log and, on a
+    // pass, completes the lesson and any certificate it earns in one transaction
+    public QuizResult submit(Student student, String courseId, String lessonId, List<Integer> answers) {
+        Course course = CatalogService.getInstance().getApprovedCourse(courseId);
+        Lesson lesson = CatalogService.requireLesson(course, lessonId);
+        EnrollmentService.requireEnrolled(student, courseId);
+        Quiz quiz = lesson.getQuiz();
+        if (quiz == null) {
+            throw new ServiceException(ServiceException.Reason.NOT_FOUND, "Lesson has no quiz");
+        }
+        if (answers.size() != quiz.getQuestionCount()) {
+            throw new ServiceException(ServiceException.Reason.INVALID,
+                    "Expected " + quiz.getQuestionCount() + " answers");
+        }
+
+        int score = quiz.calculateScore(answers);
+        boolean passed = quiz.isPassing(score);
+        ProgressService progress = ProgressService.getInstance();
+        CourseAnalytics analytics = CourseAnalytics.getInstance();
+        synchronized (student) {
+            return analytics.update(() -> {
+                // The attempt goes to the attempt log first: it happened even if
+                // saving the completion below fails
+                try {
+                    db.getAttemptLog().append(student.getUserId(), new QuizAttempt(lessonId, courseId, score, passed));
+                } catch (IOException e) {
+                    e.printStackTrace();
+                    throw new ServiceException(ServiceException.Reason.FAILED,
+                            "Could not save your quiz attempt, please try again");
+                }
+                analytics.recordAttempt(courseId, lessonId, score);
+                Certificate certificate = null;
+                if (passed) {
+                    Transaction tx = db.beginTransaction().stageUser(student);
+                    boolean newlyCompleted = !student.hasCompletedLesson(courseId, lessonId);
+                    student.markLessonComplete(courseId, lessonId);
+                    certificate = progress.issueCertificateIfComplete(student, course);
+                    ServiceTransactions.commit(tx);
+                    if (newlyCompleted) analytics.recordCompletion(courseId, lessonId);
+                }
+                return new QuizResult(score, passed, quiz.getPassingScore(),
+                        progress.getCompletedCount(student, courseId), course.getLessonCount(), certificate);
+            });
+        }
+    }
+
+    public List<QuizAttempt> getAttempts(Student student) {
+        return db.getAttemptLog().findByStudent(student.getUserId());
+    }
+
+    public static class QuizResult {
+        private final int score;
+        private final boolean passed;
+        private final int passingScore;
+        private final int completedLessons;
+        private final int totalLessons;
+        private final Certificate certificate;
+
+        public QuizResult(int score, boolean passed, int passingScore,
+                          int completedLessons, int totalLessons, Certificate certificate) {
+            this.score = score;
+            this.passed = passed;
+            this.passingScore = passingScore;
+            this.completedLessons = completedLessons;
+            this.totalLessons = totalLessons;
+            this.certificate = certificate;
+        }
+
+        public int getScore() { return score; }
+        public boolean isPassed() { return passed; }
+        public int getPassingScore() { return passingScore; }
+        public int getCompletedLessons() { return completedLessons; }
+        public int getTotalLessons() { return totalLessons; }
+        public Certificate getCertificate() { return certificate; }
+    }
+}
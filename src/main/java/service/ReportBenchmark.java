@@ -0,0 +1,111 @@
+package service;
+
+import database.QuizAttemptLog;
+import model.*;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.*;
+
+// Runs the platform reports on a synthetic dataset at increasing pool sizes to
+// show how they scale across cores. Run with a large heap, e.g.:
+//   java -Xmx4g -cp target/classes:<gson.jar> service.ReportBenchmark 500000 2000 6 5
+// arguments: students, courses, quiz attempts per student, timed rounds
+public class ReportBenchmark {
+    public static void main(String[] args) throws IOException {
+        int studentCount = args.length > 0 ? Integer.parseInt(args[0]) : 500_000;
+        int courseCount = args.length > 1 ? Integer.parseInt(args[1]) : 2_000;
+        int attemptsPerStudent = args.length > 2 ? Integer.parseInt(args[2]) : 6;
+        int rounds = args.length > 3 ? Integer.parseInt(args[3]) : 5;
+        int cores = Runtime.getRuntime().availableProcessors();
+
+        List<Course> courses = generateCourses(courseCount);
+        QuizAttemptLog attempts = QuizAttemptLog.inMemory();
+        List<User> users = generateStudents(studentCount, courses, attempts, attemptsPerStudent);
+        System.out.printf("Dataset: %,d students, %,d courses, %,d attempts; %d cores%n",
+                studentCount, courseCount, attempts.size(), cores);
+        System.out.printf("%8s %12s %12s %10s%n", "threads", "median ms", "best ms", "speedup");
+
+        double baseline = 0;
+        for (int threads : threadCounts(cores)) {
+            ReportEngine engine = new ReportEngine(threads);
+            try {
+                // Warm up the JIT and the pool's worker threads
+                for (int i = 0; i < 2; i++) engine.generate(courses, users, attempts);
+                long[] times = new long[rounds];
+                for (int r = 0; r < rounds; r++) {
+                    long start = System.nanoTime();
+                    engine.generate(courses, users, attempts);
+                    times[r] = System.nanoTime() - start;
+                }
+                Arrays.sort(times);
+                double medianMs = times[rounds / 2] / 1e6;
+                if (baseline == 0) baseline = medianMs;
+                System.out.printf("%8d %12.1f %12.1f %9.2fx%n", threads, medianMs, times[0] / 1e6, baseline / medianMs);
+            } finally {
+                engine.shutdown();
+            }
+        }
+    }
+
+    private static List<Integer> threadCounts(int cores) {
+        List<Integer> counts = new ArrayList<>();
+        for (int t = 1; t < cores; t *= 2) counts.add(t);
+        counts.add(cores);
+        return counts;
+    }
+
+    private static List<Course> generateCourses(int count) {
+        List<Course> courses = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            Course c = new Course("CRS" + i, "Course " + i, "Description of course " + i, "USR1");
+            c.setApprovalStatus(ApprovalStatus.APPROVED);
+            for (int l = 1; l <= 5; l++) {
+                Lesson lesson = new Lesson("LSN" + i + "_" + l, "Lesson " + l, "");
+                Quiz quiz = new Quiz("QZ" + i + "_" + l, new ArrayList<>(), 50);
+                quiz.addQuestion(new Question("Q" + i + "_" + l, "Question?", List.of("A", "B"), 0));
+                lesson.setQuiz(quiz);
+                c.addLesson(lesson);
+            }
+            courses.add(c);
+        }
+        return courses;
+    }
+
+    private static List<User> generateStudents(int count, List<Course> courses, QuizAttemptLog attempts,
+                                               int attemptsPerStudent) throws IOException {
+        Random random = new Random(42);
+        List<User> users = new ArrayList<>(count);
+        LocalDateTime base = LocalDateTime.of(2025, 1, 1, 0, 0);
+        for (int i = 1; i <= count; i++) {
+            Student s = new Student("USR" + i, "student" + i, "student" + i + "@example.com", "");
+            List<QuizAttempt> history = new ArrayList<>(attemptsPerStudent);
+            for (int e = 0; e < 3; e++) {
+                Course c = courses.get(random.nextInt(courses.size()));
+                s.enrollInCourse(c.getCourseId());
+                int done = random.nextInt(c.getLessonCount() + 1);
+                for (int l = 0; l < done; l++) {
+                    s.markLessonComplete(c.getCourseId(), c.getLessons().get(l).getLessonId());
+                }
+                if (done == c.getLessonCount()) {
+                    Certificate cert = new Certificate("CERT" + i + "_" + e, s.getUserId(), c.getCourseId(),
+                            c.getTitle(), s.getUsername());
+                    cert.setIssueDate(base.plusDays(random.nextInt(365)));
+                    s.addCertificate(cert);
+                }
+            }
+            for (int a = 0; a < attemptsPerStudent; a++) {
+                String courseId = s.getEnrolledCourses().get(random.nextInt(s.getEnrolledCourses().size()));
+                Course c = courses.get(Integer.parseInt(courseId.substring(3)) - 1);
+                int score = random.nextInt(101);
+                QuizAttempt attempt = new QuizAttempt(c.getLessons().get(random.nextInt(c.getLessonCount())).getLessonId(),
+                        courseId, score, score >= 50);
+                attempt.setAttemptDate(base.plusMinutes(i + a));
+                history.add(attempt);
+            }
+            attempts.appendAll(s.getUserId(), history);
+            users.add(s);
+        }
+        return users;
+    }
+}
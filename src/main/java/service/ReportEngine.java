@@ -0,0 +1,274 @@
+package service;
+
+import database.DataSnapshot;
+import database.JsonDatabaseManager;
+import database.QuizAttemptLog;
+import model.*;
+
+import java.time.YearMonth;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+// Platform-wide reports: enrollment per course, pass rate per quiz, completion
+// funnel per lesson and certificates issued per month. Students and attempt-log
+// row ranges are aggregated with parallel streams on the engine's own
+// fork/join pool, so a report never competes with the common pool and its
+// parallelism can be set with skillforge.reports.parallelism
+public class ReportEngine {
+    private static final int ATTEMPT_CHUNK = 16_384;
+
+    private static ReportEngine instance;
+    private final ForkJoinPool pool;
+
+    public ReportEngine(int parallelism) {
+        pool = new ForkJoinPool(Math.max(1, parallelism));
+    }
+
+    public static synchronized ReportEngine getInstance() {
+        if (instance == null) {
+            instance = new ReportEngine(Integer.getInteger("skillforge.reports.parallelism",
+                    Runtime.getRuntime().availableProcessors()));
+        }
+        return instance;
+    }
+
+    public int getParallelism() {
+        return pool.getParallelism();
+    }
+
+    public CompletableFuture<PlatformReport> generateAsync() {
+        JsonDatabaseManager db = JsonDatabaseManager.getInstance();
+        DataSnapshot snapshot = db.getSnapshot();
+        return generateAsync(snapshot.getCourses(), snapshot.getUsers(), db.getAttemptLog());
+    }
+
+    public PlatformReport generate(List<Course> courses, List<User> users, QuizAttemptLog attempts) {
+        return generateAsync(courses, users, attempts).join();
+    }
+
+    // Parallel streams started from inside a fork/join task run on that task's pool
+    public CompletableFuture<PlatformReport> generateAsync(List<Course> courses, List<User> users,
+                                                           QuizAttemptLog attempts) {
+        return CompletableFuture.supplyAsync(() -> compute(courses, users, attempts), pool);
+    }
+
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    private PlatformReport compute(List<Course> courses, List<User> users, QuizAttemptLog attempts) {
+        long start = System.nanoTime();
+
+        StudentTally students = users.parallelStream()
+                .filter(u -> u instanceof Student)
+                .collect(StudentTally::new, (t, u) -> t.add((Student) u), StudentTally::merge);
+
+        int rows = attempts.size();
+        int chunks = (rows + ATTEMPT_CHUNK - 1) / ATTEMPT_CHUNK;
+        AttemptTally quizzes = IntStream.range(0, chunks).parallel()
+                .collect(AttemptTally::new,
+                        (t, chunk) -> attempts.forEachInRange(chunk * ATTEMPT_CHUNK, (chunk + 1) * ATTEMPT_CHUNK, t::add),
+                        AttemptTally::merge);
+
+        List<EnrollmentRow> enrollment = new ArrayList<>();
+        List<QuizPassRow> passRates = new ArrayList<>();
+        List<FunnelRow> funnel = new ArrayList<>();
+        for (Course c : courses) {
+            int enrolled = students.enrollments.getOrDefault(c.getCourseId(), 0);
+            enrollment.add(new EnrollmentRow(c.getCourseId(), c.getTitle(), c.getApprovalStatus(), enrolled));
+
+            Map<String, Integer> completed = students.completions.getOrDefault(c.getCourseId(), Map.of());
+            Map<String, int[]> quizStats = quizzes.byLesson.getOrDefault(c.getCourseId(), Map.of());
+            List<Lesson> lessons = c.getLessons();
+            for (int i = 0; i < lessons.size(); i++) {
+                Lesson l = lessons.get(i);
+                funnel.add(new FunnelRow(c.getCourseId(), c.getTitle(), i + 1, l.getTitle(), enrolled,
+                        completed.getOrDefault(l.getLessonId(), 0)));
+                if (l.hasQuiz()) {
+                    int[] counts = quizStats.getOrDefault(l.getLessonId(), new int[2]);
+                    passRates.add(new QuizPassRow(c.getCourseId(), c.getTitle(), l.getLessonId(), l.getTitle(),
+                            counts[0], counts[1]));
+                }
+            }
+        }
+        enrollment.sort(Comparator.comparingInt(EnrollmentRow::getEnrolled).reversed());
+
+        long elapsed = (System.nanoTime() - start) / 1_000_000;
+        return new PlatformReport(enrollment, passRates, funnel, new TreeMap<>(students.certificatesByMonth),
+                students.studentCount, rows, elapsed, getParallelism());
+    }
+
+    // Per-thread accumulator over students. Each student is read under its own
+    // monitor, the same one the services hold while changing it
+    private static class StudentTally {
+        private int studentCount;
+        private final Map<String, Integer> enrollments = new HashMap<>();
+        private final Map<String, Map<String, Integer>> completions = new HashMap<>();
+        private final Map<YearMonth, Integer> certificatesByMonth = new HashMap<>();
+
+        void add(Student s) {
+            synchronized (s) {
+                studentCount++;
+                for (String courseId : s.getEnrolledCourses()) {
+                    enrollments.merge(courseId, 1, Integer::sum);
+                }
+                for (Map.Entry<String, CourseProgress> e : s.getProgress().entrySet()) {
+                    Map<String, Integer> lessons = completions.computeIfAbsent(e.getKey(), k -> new HashMap<>());
+                    for (String lessonId : e.getValue().getCompletedLessons()) {
+                        lessons.merge(lessonId, 1, Integer::sum);
+                    }
+                }
+                for (Certificate c : s.getCertificates()) {
+                    if (c.getIssueDate() != null) {
+                        certificatesByMonth.merge(YearMonth.from(c.getIssueDate()), 1, Integer::sum);
+                    }
+                }
+            }
+        }
+
+        void merge(StudentTally other) {
+            studentCount += other.studentCount;
+            other.enrollments.forEach((k, v) -> enrollments.merge(k, v, Integer::sum));
+            other.completions.forEach((courseId, lessons) -> {
+                Map<String, Integer> mine = completions.computeIfAbsent(courseId, k -> new HashMap<>());
+                lessons.forEach((k, v) -> mine.merge(k, v, Integer::sum));
+            });
+            other.certificatesByMonth.forEach((k, v) -> certificatesByMonth.merge(k, v, Integer::sum));
+        }
+    }
+
+    // Attempts and passes per course and lesson
+    private static class AttemptTally {
+        private final Map<String, Map<String, int[]>> byLesson = new HashMap<>();
+
+        void add(String studentId, String courseId, String lessonId, int score, boolean passed, long epochSecond) {
+            int[] counts = byLesson.computeIfAbsent(courseId, k -> new HashMap<>())
+                    .computeIfAbsent(lessonId, k -> new int[2]);
+            counts[0]++;
+            if (passed) counts[1]++;
+        }
+
+        void merge(AttemptTally other) {
+            other.byLesson.forEach((courseId, lessons) -> {
+                Map<String, int[]> mine = byLesson.computeIfAbsent(courseId, k -> new HashMap<>());
+                lessons.forEach((lessonId, counts) -> {
+                    int[] into = mine.computeIfAbsent(lessonId, k -> new int[2]);
+                    into[0] += counts[0];
+                    into[1] += counts[1];
+                });
+            });
+        }
+    }
+
+    public static class PlatformReport {
+        private final List<EnrollmentRow> enrollment;
+        private final List<QuizPassRow> passRates;
+        private final List<FunnelRow> funnel;
+        private final SortedMap<YearMonth, Integer> certificatesByMonth;
+        private final int studentCount;
+        private final int attemptCount;
+        private final long elapsedMillis;
+        private final int parallelism;
+
+        PlatformReport(List<EnrollmentRow> enrollment, List<QuizPassRow> passRates, List<FunnelRow> funnel,
+                       SortedMap<YearMonth, Integer> certificatesByMonth, int studentCount, int attemptCount,
+                       long elapsedMillis, int parallelism) {
+            this.enrollment = Collections.unmodifiableList(enrollment);
+            this.passRates = Collections.unmodifiableList(passRates);
+            this.funnel = Collections.unmodifiableList(funnel);
+            this.certificatesByMonth = Collections.unmodifiableSortedMap(certificatesByMonth);
+            this.studentCount = studentCount;
+            this.attemptCount = attemptCount;
+            this.elapsedMillis = elapsedMillis;
+            this.parallelism = parallelism;
+        }
+
+        public List<EnrollmentRow> getEnrollment() { return enrollment; }
+        public List<QuizPassRow> getPassRates() { return passRates; }
+        public List<FunnelRow> getFunnel() { return funnel; }
+        public SortedMap<YearMonth, Integer> getCertificatesByMonth() { return certificatesByMonth; }
+        public int getStudentCount() { return studentCount; }
+        public int getAttemptCount() { return attemptCount; }
+        public long getElapsedMillis() { return elapsedMillis; }
+        public int getParallelism() { return parallelism; }
+    }
+
+    public static class EnrollmentRow {
+        private final String courseId;
+        private final String title;
+        private final ApprovalStatus status;
+        private final int enrolled;
+
+        EnrollmentRow(String courseId, String title, ApprovalStatus status, int enrolled) {
+            this.courseId = courseId;
+            this.title = title;
+            this.status = status;
+            this.enrolled = enrolled;
+        }
+
+        public String getCourseId() { return courseId; }
+        public String getTitle() { return title; }
+        public ApprovalStatus getStatus() { return status; }
+        public int getEnrolled() { return enrolled; }
+    }
+
+    public static class QuizPassRow {
+        private final String courseId;
+        private final String courseTitle;
+        private final String lessonId;
+        private final String lessonTitle;
+        private final int attempts;
+        private final int passes;
+
+        QuizPassRow(String courseId, String courseTitle, String lessonId, String lessonTitle, int attempts, int passes) {
+            this.courseId = courseId;
+            this.courseTitle = courseTitle;
+            this.lessonId = lessonId;
+            this.lessonTitle = lessonTitle;
+            this.attempts = attempts;
+            this.passes = passes;
+        }
+
+        public String getCourseId() { return courseId; }
+        public String getCourseTitle() { return courseTitle; }
+        public String getLessonId() { return lessonId; }
+        public String getLessonTitle() { return lessonTitle; }
+        public int getAttempts() { return attempts; }
+        public int getPasses() { return passes; }
+
+        public double getPassRate() {
+            return attempts > 0 ? passes * 100.0 / attempts : 0;
+        }
+    }
+
+    public static class FunnelRow {
+        private final String courseId;
+        private final String courseTitle;
+        private final int step;
+        private final String lessonTitle;
+        private final int enrolled;
+        private final int completed;
+
+        FunnelRow(String courseId, String courseTitle, int step, String lessonTitle, int enrolled, int completed) {
+            this.courseId = courseId;
+            this.courseTitle = courseTitle;
+            this.step = step;
+            this.lessonTitle = lessonTitle;
+            this.enrolled = enrolled;
+            this.completed = completed;
+        }
+
+        public String getCourseId() { return courseId; }
+        public String getCourseTitle() { return courseTitle; }
+        public int getStep() { return step; }
+        public String getLessonTitle() { return lessonTitle; }
+        public int getEnrolled() { return enrolled; }
+        public int getCompleted() { return completed; }
+
+        public double getCompletionRate() {
+            return enrolled > 0 ? completed * 100.0 / enrolled : 0;
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package service;
+
+public class ServiceException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    public enum Reason { NOT_FOUND, FORBIDDEN, INVALID, FAILED }
+
+    private final Reason reason;
+
+    public ServiceException(Reason reason, String message) {
+        super(message);
+        this.reason = reason;
+    }
+
+    public Reason getReason() { return reason; }
+}
@@ -0,0 +1,19 @@
+package service;
+
+import database.Transaction;
+import database.TransactionException;
+
+final class ServiceTransactions {
+    private ServiceTransactions() {}
+
+    // Commits and turns storage failures into service errors; by the time
+    // either is thrown the transaction has already been rolled back
+    static void commit(Transaction tx) {
+        try {
+            tx.commit();
+        } catch (TransactionException e) {
+            e.printStackTrace();
+            throw new ServiceException(ServiceException.Reason.FAILED, "Could not save changes, please try again");
+        }
+    }
+}
@@ -3,18 +3,34 @@ package ui;
 import auth.AuthService;
 import database.JsonDatabaseManager;
 import model.*;
+import service.CatalogService;
+import service.ReportEngine;
+import service.ServiceException;
+import utils.IdCodec;
 
 import javax.swing.*;
 import javax.swing.table.DefaultTableModel;
 import java.awt.*;
+import java.time.YearMonth;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Predicate;
 
 public class AdminDashboardFrame extends BaseFrame {
     private final AuthService auth = AuthService.getInstance();
     private final JsonDatabaseManager db = JsonDatabaseManager.getInstance();
+    private final CatalogService catalog = CatalogService.getInstance();
     private JTabbedPane tabbedPane;
     private JTable pendingTable, allCoursesTable, usersTable;
-    private DefaultTableModel pendingModel, allCoursesModel, usersModel;
+    private DefaultTableModel pendingModel;
+    private EntityTableModel<Course> allCoursesModel;
+    private EntityTableModel<User> usersModel;
+    private DefaultTableModel enrollmentModel, passRateModel, funnelModel, certificatesModel;
+    private TableLoader pendingLoader;
+    private JButton generateReportsBtn;
+    private JLabel reportStatusLbl;
 
     public AdminDashboardFrame() {
         super("SkillForge - Admin Dashboard");
@@ -32,6 +48,7 @@ public class AdminDashboardFrame extends BaseFrame {
         tabbedPane.addTab("Pending Courses", createPendingCoursesPanel());
         tabbedPane.addTab("All Courses", createAllCoursesPanel());
         tabbedPane.addTab("Users", createUsersPanel());
+        tabbedPane.addTab("Reports", createReportsPanel());
         add(tabbedPane, BorderLayout.CENTER);
     }
 
@@ -61,6 +78,8 @@ public class AdminDashboardFrame extends BaseFrame {
         };
         pendingTable = new JTable(pendingModel);
         pendingTable.setFont(REGULAR_FONT);
+        pendingLoader = new TableLoader(pendingModel);
+        panel.add(pendingLoader.getProgressBar(), BorderLayout.NORTH);
 
         panel.add(new JScrollPane(pendingTable), BorderLayout.CENTER);
 
@@ -90,12 +109,24 @@ public class AdminDashboardFrame extends BaseFrame {
         JPanel panel = new JPanel(new BorderLayout(5, 5));
         panel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
 
-        allCoursesModel = new DefaultTableModel(
-                new String[]{"Course ID", "Title", "Status", "Instructor", "Students", "Lessons"}, 0) {
-            @Override public boolean isCellEditable(int r, int c) { return false; }
-        };
+        allCoursesModel = new EntityTableModel<>(
+                (filter, order, offset, limit) -> db.queryCourses(null, filter.isEmpty() ? null : courseMatcher(filter),
+                        order, offset, limit),
+                List.of(
+                        new EntityTableModel.Column<>("Course ID", Course::getCourseId, byNumber(Course::getCourseId, "CRS")),
+                        new EntityTableModel.Column<>("Title", Course::getTitle,
+                                Comparator.comparing(Course::getTitle, String.CASE_INSENSITIVE_ORDER)),
+                        new EntityTableModel.Column<>("Status", Course::getApprovalStatus,
+                                Comparator.comparing(Course::getApprovalStatus)),
+                        new EntityTableModel.Column<>("Instructor", this::instructorName, null),
+                        new EntityTableModel.Column<>("Students", Course::getStudentCount,
+                                Comparator.comparingInt(Course::getStudentCount)),
+                        new EntityTableModel.Column<>("Lessons", Course::getLessonCount,
+                                Comparator.comparingInt(Course::getLessonCount))));
         allCoursesTable = new JTable(allCoursesModel);
         allCoursesTable.setFont(REGULAR_FONT);
+        allCoursesModel.attachSorting(allCoursesTable);
+        panel.add(createFilterBar(allCoursesModel), BorderLayout.NORTH);
 
         panel.add(new JScrollPane(allCoursesTable), BorderLayout.CENTER);
 
@@ -117,17 +148,65 @@ public class AdminDashboardFrame extends BaseFrame {
         JPanel panel = new JPanel(new BorderLayout(5, 5));
         panel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
 
-        usersModel = new DefaultTableModel(
-                new String[]{"User ID", "Username", "Email", "Role", "Enrolled/Created"}, 0) {
-            @Override public boolean isCellEditable(int r, int c) { return false; }
-        };
+        usersModel = new EntityTableModel<>(
+                (filter, order, offset, limit) -> db.queryUsers(filter.isEmpty() ? null : userMatcher(filter),
+                        order, offset, limit),
+                List.of(
+                        new EntityTableModel.Column<>("User ID", User::getUserId, byNumber(User::getUserId, "USR")),
+                        new EntityTableModel.Column<>("Username", User::getUsername,
+                                Comparator.comparing(User::getUsername, String.CASE_INSENSITIVE_ORDER)),
+                        new EntityTableModel.Column<>("Email", User::getEmail,
+                                Comparator.comparing(User::getEmail, String.CASE_INSENSITIVE_ORDER)),
+                        new EntityTableModel.Column<>("Role", User::getRole, Comparator.comparing(User::getRole)),
+                        new EntityTableModel.Column<>("Enrolled/Created", this::userActivity, null)));
         usersTable = new JTable(usersModel);
         usersTable.setFont(REGULAR_FONT);
+        usersModel.attachSorting(usersTable);
+        panel.add(createFilterBar(usersModel), BorderLayout.NORTH);
 
         panel.add(new JScrollPane(usersTable), BorderLayout.CENTER);
         return panel;
     }
 
+    private JPanel createReportsPanel() {
+        JPanel panel = new JPanel(new BorderLayout(5, 5));
+        panel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
+
+        JPanel topPanel = new JPanel(new FlowLayout(FlowLayout.LEFT, 5, 5));
+        generateReportsBtn = createStyledButton("Generate Reports", null);
+        generateReportsBtn.addActionListener(e -> generateReports());
+        topPanel.add(generateReportsBtn);
+        reportStatusLbl = createLabel("Reports cover all courses, students, quiz attempts and certificates");
+        topPanel.add(reportStatusLbl);
+        panel.add(topPanel, BorderLayout.NORTH);
+
+        enrollmentModel = readOnlyModel("Course ID", "Title", "Status", "Enrolled");
+        passRateModel = readOnlyModel("Course", "Lesson", "Attempts", "Passed", "Pass Rate");
+        funnelModel = readOnlyModel("Course", "Step", "Lesson", "Completed", "Of Enrolled");
+        certificatesModel = readOnlyModel("Month", "Certificates");
+
+        JTabbedPane reports = new JTabbedPane();
+        reports.setFont(REGULAR_FONT);
+        reports.addTab("Enrollment", reportTable(enrollmentModel));
+        reports.addTab("Quiz Pass Rates", reportTable(passRateModel));
+        reports.addTab("Completion Funnel", reportTable(funnelModel));
+        reports.addTab("Certificates", reportTable(certificatesModel));
+        panel.add(reports, BorderLayout.CENTER);
+        return panel;
+    }
+
+    private static DefaultTableModel readOnlyModel(String... columns) {
+        return new DefaultTableModel(columns, 0) {
+            @Override public boolean isCellEditable(int r, int c) { return false; }
+        };
+    }
+
+    private JScrollPane reportTable(DefaultTableModel model) {
+        JTable table = new JTable(model);
+        table.setFont(REGULAR_FONT);
+        return new JScrollPane(table);
+    }
+
     private void loadData() {
         loadPendingCourses();
         loadAllCourses();
@@ -135,50 +214,66 @@ public class AdminDashboardFrame extends BaseFrame {
     }
 
     private void loadPendingCourses() {
-        pendingModel.setRowCount(0);
-        List<Course> pending = db.getPendingCourses();
-
-        for (Course c : pending) {
+        pendingLoader.load(db::getPendingCourses, c -> {
             User instructor = db.findUserById(c.getInstructorId());
             String instructorName = instructor != null ? instructor.getUsername() : "Unknown";
             String created = c.getCreatedAt().toLocalDate().toString();
-            pendingModel.addRow(new Object[]{
+            return new Object[]{
                     c.getCourseId(), c.getTitle(), c.getDescription(), instructorName, created
-            });
-        }
+            };
+        });
     }
 
     private void loadAllCourses() {
-        allCoursesModel.setRowCount(0);
-        List<Course> courses = db.getAllCourses();
-
-        for (Course c : courses) {
-            User instructor = db.findUserById(c.getInstructorId());
-            String instructorName = instructor != null ? instructor.getUsername() : "Unknown";
-            allCoursesModel.addRow(new Object[]{
-                    c.getCourseId(), c.getTitle(), c.getApprovalStatus(),
-                    instructorName, c.getStudentCount(), c.getLessonCount()
-            });
-        }
+        allCoursesModel.reload();
     }
 
     private void loadUsers() {
-        usersModel.setRowCount(0);
-        List<User> users = db.getAllUsers();
-
-        for (User u : users) {
-            String extra;
-            if (u instanceof Instructor) {
-                extra = ((Instructor) u).getCreatedCourses().size() + " courses created";
-            } else if (u instanceof Student) {
-                extra = u.getEnrolledCourses().size() + " courses enrolled";
-            } else {
-                extra = "Admin";
-            }
-            usersModel.addRow(new Object[]{
-                    u.getUserId(), u.getUsername(), u.getEmail(), u.getRole(), extra
-            });
+        usersModel.reload();
+    }
+
+    private JPanel createFilterBar(EntityTableModel<?> model) {
+        JPanel bar = new JPanel(new BorderLayout(5, 5));
+        JTextField filterField = createStyledTextField();
+        model.attachFilter(filterField);
+        bar.add(createLabel("Filter:"), BorderLayout.WEST);
+        bar.add(filterField, BorderLayout.CENTER);
+        bar.add(model.getProgressBar(), BorderLayout.EAST);
+        return bar;
+    }
+
+    private static Predicate<User> userMatcher(String filter) {
+        String text = filter.toLowerCase();
+        return u -> contains(u.getUserId(), text) || contains(u.getUsername(), text) || contains(u.getEmail(), text);
+    }
+
+    private Predicate<Course> courseMatcher(String filter) {
+        String text = filter.toLowerCase();
+        return c -> contains(c.getCourseId(), text) || contains(c.getTitle(), text)
+                || contains(instructorName(c), text);
+    }
+
+    private static boolean contains(String value, String lowerCaseText) {
+        return value != null && value.toLowerCase().contains(lowerCaseText);
+    }
+
+    // Numeric order for generated IDs, so USR1000 sorts after USR999
+    private static <T> Comparator<T> byNumber(Function<T, String> id, String prefix) {
+        return Comparator.<T>comparingLong(t -> IdCodec.parse(id.apply(t), prefix)).thenComparing(id);
+    }
+
+    private String instructorName(Course c) {
+        User instructor = db.findUserById(c.getInstructorId());
+        return instructor != null ? instructor.getUsername() : "Unknown";
+    }
+
+    private String userActivity(User u) {
+        if (u instanceof Instructor) {
+            return ((Instructor) u).getCreatedCourses().size() + " courses created";
+        } else if (u instanceof Student) {
+            return u.getEnrolledCourses().size() + " courses enrolled";
         }
+        return "Admin";
     }
 
     private void approveCourse() {
@@ -191,8 +286,12 @@ public class AdminDashboardFrame extends BaseFrame {
         Course course = db.findCourseById(courseId);
 
         if (showConfirm("Approve course '" + course.getTitle() + "'?")) {
-            course.setApprovalStatus(ApprovalStatus.APPROVED);
-            db.updateCourse(course);
+            try {
+                catalog.setApprovalStatus(courseId, ApprovalStatus.APPROVED);
+            } catch (ServiceException e) {
+                showError(e.getMessage());
+                return;
+            }
             showSuccess("Course approved! It's now visible to students.");
             loadData();
         }
@@ -205,14 +304,17 @@ public class AdminDashboardFrame extends BaseFrame {
             return;
         }
         String courseId = (String) pendingModel.getValueAt(row, 0);
-        Course course = db.findCourseById(courseId);
 
         String reason = JOptionPane.showInputDialog(this,
                 "Reason for rejection (optional):", "Reject Course", JOptionPane.PLAIN_MESSAGE);
 
         if (reason != null) {
-            course.setApprovalStatus(ApprovalStatus.REJECTED);
-            db.updateCourse(course);
+            try {
+                catalog.setApprovalStatus(courseId, ApprovalStatus.REJECTED);
+            } catch (ServiceException e) {
+                showError(e.getMessage());
+                return;
+            }
             showSuccess("Course rejected.");
             loadData();
         }
@@ -256,20 +358,20 @@ public class AdminDashboardFrame extends BaseFrame {
 
     private void deleteAnyCourse() {
         int row = allCoursesTable.getSelectedRow();
-        if (row < 0) {
+        Course selectedCourse = row < 0 ? null : allCoursesModel.getEntityAt(row);
+        if (selectedCourse == null) {
             showError("Select a course to delete");
             return;
         }
-        String courseId = (String) allCoursesModel.getValueAt(row, 0);
+        String courseId = selectedCourse.getCourseId();
 
         if (showConfirm("Delete this course permanently? This cannot be undone.")) {
-            Course course = db.findCourseById(courseId);
-            User instructor = db.findUserById(course.getInstructorId());
-            if (instructor instanceof Instructor) {
-                ((Instructor) instructor).removeCreatedCourse(courseId);
-                db.updateUser(instructor);
+            try {
+                catalog.deleteCourse(courseId);
+            } catch (ServiceException e) {
+                showError(e.getMessage());
+                return;
             }
-            db.deleteCourse(courseId);
             showSuccess("Course deleted");
             loadData();
         }
@@ -277,11 +379,12 @@ public class AdminDashboardFrame extends BaseFrame {
 
     private void changeStatus() {
         int row = allCoursesTable.getSelectedRow();
-        if (row < 0) {
+        Course selectedCourse = row < 0 ? null : allCoursesModel.getEntityAt(row);
+        if (selectedCourse == null) {
             showError("Select a course to change status");
             return;
         }
-        String courseId = (String) allCoursesModel.getValueAt(row, 0);
+        String courseId = selectedCourse.getCourseId();
         Course course = db.findCourseById(courseId);
 
         String[] options = {"PENDING", "APPROVED", "REJECTED"};
@@ -290,13 +393,65 @@ public class AdminDashboardFrame extends BaseFrame {
                 JOptionPane.PLAIN_MESSAGE, null, options, course.getApprovalStatus().toString());
 
         if (selected != null) {
-            course.setApprovalStatus(ApprovalStatus.valueOf(selected));
-            db.updateCourse(course);
+            try {
+                catalog.setApprovalStatus(courseId, ApprovalStatus.valueOf(selected));
+            } catch (ServiceException e) {
+                showError(e.getMessage());
+                return;
+            }
             showSuccess("Status updated to " + selected);
             loadData();
         }
     }
 
+    // Runs on the report engine's pool; only the table updates happen on the EDT
+    private void generateReports() {
+        generateReportsBtn.setEnabled(false);
+        reportStatusLbl.setText("Generating...");
+        ReportEngine.getInstance().generateAsync().whenComplete((report, error) ->
+                SwingUtilities.invokeLater(() -> {
+                    generateReportsBtn.setEnabled(true);
+                    if (error != null) {
+                        error.printStackTrace();
+                        reportStatusLbl.setText("Report generation failed");
+                        showError("Could not generate reports, please try again");
+                        return;
+                    }
+                    showReport(report);
+                }));
+    }
+
+    private void showReport(ReportEngine.PlatformReport report) {
+        enrollmentModel.setRowCount(0);
+        for (ReportEngine.EnrollmentRow r : report.getEnrollment()) {
+            enrollmentModel.addRow(new Object[]{r.getCourseId(), r.getTitle(), r.getStatus(), r.getEnrolled()});
+        }
+        passRateModel.setRowCount(0);
+        for (ReportEngine.QuizPassRow r : report.getPassRates()) {
+            passRateModel.addRow(new Object[]{r.getCourseTitle(), r.getLessonTitle(), r.getAttempts(), r.getPasses(),
+                    String.format("%.1f%%", r.getPassRate())});
+        }
+        funnelModel.setRowCount(0);
+        for (ReportEngine.FunnelRow r : report.getFunnel()) {
+            funnelModel.addRow(new Object[]{r.getCourseTitle(), r.getStep(), r.getLessonTitle(), r.getCompleted(),
+                    String.format("%.1f%%", r.getCompletionRate())});
+        }
+        certificatesModel.setRowCount(0);
+        for (Map.Entry<YearMonth, Integer> e : report.getCertificatesByMonth().entrySet()) {
+            certificatesModel.addRow(new Object[]{e.getKey(), e.getValue()});
+        }
+        reportStatusLbl.setText(String.format("%,d students and %,d quiz attempts in %d ms on %d threads",
+                report.getStudentCount(), report.getAttemptCount(), report.getElapsedMillis(), report.getParallelism()));
+    }
+
+    @Override
+    public void dispose() {
+        pendingLoader.cancel();
+        allCoursesModel.cancel();
+        usersModel.cancel();
+        super.dispose();
+    }
+
     private void logout() {
         auth.logout();
         dispose();
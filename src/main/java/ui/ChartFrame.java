@@ -2,6 +2,7 @@ package ui;
 
 import database.JsonDatabaseManager;
 import model.*;
+import service.CourseAnalytics;
 
 import javax.swing.*;
 import java.awt.*;
@@ -12,8 +13,7 @@ public class ChartFrame extends BaseFrame {
     private final String courseId;
     private final JsonDatabaseManager db = JsonDatabaseManager.getInstance();
     private Course course;
-    private Map<String, List<Integer>> lessonScores;
-    private Map<String, Integer> lessonCompletions;
+    private CourseAnalytics.CourseStats stats;
 
     public ChartFrame(String courseId) {
         super("Course Analytics");
@@ -26,36 +26,7 @@ public class ChartFrame extends BaseFrame {
     }
 
     private void calculateStatistics() {
-        lessonScores = new HashMap<>();
-        lessonCompletions = new HashMap<>();
-
-        for (Lesson l : course.getLessons()) {
-            lessonScores.put(l.getLessonId(), new ArrayList<>());
-            lessonCompletions.put(l.getLessonId(), 0);
-        }
-
-        // Gather quiz scores from all students
-        for (Student student : db.getAllStudents()) {
-            if (!student.getEnrolledCourses().contains(courseId)) continue;
-
-            // Check completions
-            CourseProgress progress = student.getProgress().get(courseId);
-            if (progress != null) {
-                for (String lessonId : progress.getCompletedLessons()) {
-                    lessonCompletions.merge(lessonId, 1, Integer::sum);
-                }
-            }
-
-            // Check quiz scores
-            for (QuizAttempt attempt : student.getQuizAttempts()) {
-                if (attempt.getCourseId().equals(courseId)) {
-                    List<Integer> scores = lessonScores.get(attempt.getLessonId());
-                    if (scores != null) {
-                        scores.add(attempt.getScore());
-                    }
-                }
-            }
-        }
+        stats = CourseAnalytics.getInstance().getCourseStats(course);
     }
 
     @Override
@@ -111,12 +82,7 @@ public class ChartFrame extends BaseFrame {
                 // Calculate averages
                 List<Double> averages = new ArrayList<>();
                 for (Lesson l : lessons) {
-                    List<Integer> scores = lessonScores.get(l.getLessonId());
-                    if (scores != null && !scores.isEmpty()) {
-                        averages.add(scores.stream().mapToInt(Integer::intValue).average().orElse(0));
-                    } else {
-                        averages.add(0.0);
-                    }
+                    averages.add(stats.getLesson(l.getLessonId()).getAverageScore());
                 }
 
                 // Draw axes
@@ -206,7 +172,7 @@ public class ChartFrame extends BaseFrame {
 
                 for (int i = 0; i < lessons.size(); i++) {
                     Lesson l = lessons.get(i);
-                    int completed = lessonCompletions.getOrDefault(l.getLessonId(), 0);
+                    int completed = stats.getLesson(l.getLessonId()).getCompletions();
                     double pct = (completed * 100.0) / totalStudents;
                     int barH = (int)((h - 2*margin - 20) * pct / 100.0);
                     int x = startX + i * (barWidth + gap);
@@ -234,16 +200,12 @@ public class ChartFrame extends BaseFrame {
         int totalLessons = course.getLessonCount();
 
         // Calculate overall completion
-        int totalCompletions = lessonCompletions.values().stream().mapToInt(Integer::intValue).sum();
+        int totalCompletions = stats.getTotalCompletions();
         double avgCompletion = totalStudents > 0 && totalLessons > 0 ?
                 (totalCompletions * 100.0) / (totalStudents * totalLessons) : 0;
 
         // Calculate overall quiz average
-        double overallQuizAvg = lessonScores.values().stream()
-                .flatMap(List::stream)
-                .mapToInt(Integer::intValue)
-                .average()
-                .orElse(0);
+        double overallQuizAvg = stats.getAverageScore();
 
         panel.add(createStatBox("Enrolled Students", String.valueOf(totalStudents)));
         panel.add(createStatBox("Total Lessons", String.valueOf(totalLessons)));
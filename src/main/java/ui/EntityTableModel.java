@@ -0,0 +1,233 @@
+package ui;
+
+import database.QueryPage;
+
+import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.table.AbstractTableModel;
+import javax.swing.table.JTableHeader;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+// Table model over a query result of live entities, read one page at a time.
+// Only the row count and the most recently used pages are held, and cell
+// values are computed when JTable asks for them, which is only for the rows on
+// screen. A row whose page is not loaded shows blank and fetches the page.
+// Sorting and filtering are pushed to the query and run off the EDT; a newer
+// request cancels the older ones
+public class EntityTableModel<T> extends AbstractTableModel {
+    private static final long serialVersionUID = 1L;
+    private static final int FILTER_DELAY_MS = 250;
+    private static final int PAGE_SIZE = 100;
+    private static final int MAX_PAGES = 20;
+
+    private final List<Column<T>> columns;
+    private final Query<T> query;
+    private final JProgressBar progressBar;
+    // Page number to rows, least recently used first
+    private final Map<Integer, List<T>> pages = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<Integer, SwingWorker<QueryPage<T>, Void>> loading = new HashMap<>();
+    private int rowCount;
+    private String filter = "";
+    private int sortColumn = -1;
+    private boolean ascending = true;
+    private SwingWorker<QueryPage<T>, Void> current;
+
+    public interface Query<T> {
+        // filter is the trimmed text typed by the user, empty for none; order is null for storage order.
+        // Returns the rows at offset.. (at most limit of them) and the size of the whole result
+        QueryPage<T> run(String filter, Comparator<? super T> order, int offset, int limit);
+    }
+
+    public EntityTableModel(Query<T> query, List<Column<T>> columns) {
+        this.query = query;
+        this.columns = List.copyOf(columns);
+        progressBar = new JProgressBar();
+        progressBar.setIndeterminate(true);
+        progressBar.setVisible(false);
+    }
+
+    public JProgressBar getProgressBar() {
+        return progressBar;
+    }
+
+    // Null while the row's page is still loading
+    public T getEntityAt(int row) {
+        List<T> page = pages.get(row / PAGE_SIZE);
+        if (page == null) {
+            requestPage(row / PAGE_SIZE);
+            return null;
+        }
+        int index = row % PAGE_SIZE;
+        return index < page.size() ? page.get(index) : null;
+    }
+
+    @Override
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return columns.size();
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return columns.get(column).name;
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        T entity = getEntityAt(row);
+        return entity != null ? columns.get(column).value.apply(entity) : null;
+    }
+
+    // Re-runs the query with the current filter and sort, starting from the
+    // first page. The old pages stay on screen until it answers. Call on the EDT
+    public void reload() {
+        cancel();
+        progressBar.setVisible(true);
+        current = fetch(0, result -> {
+            current = null;
+            progressBar.setVisible(false);
+            pages.clear();
+            rowCount = result.getTotal();
+            keep(0, result.getRows());
+            fireTableDataChanged();
+        });
+    }
+
+    private void requestPage(int page) {
+        // Pages are fetched for the current result only, never while it is being replaced
+        if (current != null || loading.containsKey(page)) return;
+        loading.put(page, fetch(page, result -> {
+            loading.remove(page);
+            keep(page, result.getRows());
+            if (result.getRows().isEmpty()) return;
+            int first = page * PAGE_SIZE;
+            fireTableRowsUpdated(first, Math.min(rowCount, first + result.getRows().size()) - 1);
+        }));
+    }
+
+    private SwingWorker<QueryPage<T>, Void> fetch(int page, Consumer<QueryPage<T>> onLoaded) {
+        String text = filter;
+        Comparator<? super T> order = currentOrder();
+        SwingWorker<QueryPage<T>, Void> worker = new SwingWorker<>() {
+            @Override
+            protected QueryPage<T> doInBackground() {
+                return query.run(text, order, page * PAGE_SIZE, PAGE_SIZE);
+            }
+
+            @Override
+            protected void done() {
+                // Superseded by a newer request
+                if (current != this && loading.get(page) != this) return;
+                try {
+                    onLoaded.accept(get());
+                } catch (Exception e) {
+                    EntityTableModel.this.cancel();
+                    TableLoader.showLoadError(progressBar, e);
+                }
+            }
+        };
+        worker.execute();
+        return worker;
+    }
+
+    private void keep(int page, List<T> rows) {
+        pages.put(page, rows);
+        if (pages.size() > MAX_PAGES) {
+            Iterator<Integer> eldest = pages.keySet().iterator();
+            eldest.next();
+            eldest.remove();
+        }
+    }
+
+    public void cancel() {
+        for (SwingWorker<QueryPage<T>, Void> worker : loading.values()) {
+            worker.cancel(true);
+        }
+        loading.clear();
+        if (current != null) {
+            current.cancel(true);
+            current = null;
+            progressBar.setVisible(false);
+        }
+    }
+
+    public void setFilter(String text) {
+        filter = text.trim();
+        reload();
+    }
+
+    // Clicking a sortable column sorts by it; clicking it again flips the direction
+    public void sortBy(int column) {
+        if (columns.get(column).order == null) return;
+        if (sortColumn == column) {
+            ascending = !ascending;
+        } else {
+            sortColumn = column;
+            ascending = true;
+        }
+        reload();
+    }
+
+    private Comparator<? super T> currentOrder() {
+        if (sortColumn < 0) return null;
+        Comparator<T> order = columns.get(sortColumn).order;
+        return ascending ? order : order.reversed();
+    }
+
+    public void attachSorting(JTable table) {
+        JTableHeader header = table.getTableHeader();
+        header.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                int column = table.convertColumnIndexToModel(header.columnAtPoint(e.getPoint()));
+                if (column < 0) return;
+                sortBy(column);
+                for (int i = 0; i < table.getColumnCount(); i++) {
+                    int modelColumn = table.convertColumnIndexToModel(i);
+                    String name = getColumnName(modelColumn);
+                    if (modelColumn == sortColumn) name += ascending ? " ▲" : " ▼";
+                    table.getColumnModel().getColumn(i).setHeaderValue(name);
+                }
+                header.repaint();
+            }
+        });
+    }
+
+    // Re-filters a short moment after the user stops typing
+    public void attachFilter(JTextField field) {
+        Timer timer = new Timer(FILTER_DELAY_MS, e -> setFilter(field.getText()));
+        timer.setRepeats(false);
+        field.getDocument().addDocumentListener(new DocumentListener() {
+            @Override public void insertUpdate(DocumentEvent e) { timer.restart(); }
+            @Override public void removeUpdate(DocumentEvent e) { timer.restart(); }
+            @Override public void changedUpdate(DocumentEvent e) { timer.restart(); }
+        });
+    }
+
+    public static class Column<T> {
+        private final String name;
+        private final Function<T, Object> value;
+        private final Comparator<T> order;
+
+        // order may be null for a column that cannot be sorted
+        public Column(String name, Function<T, Object> value, Comparator<T> order) {
+            this.name = name;
+            this.value = value;
+            this.order = order;
+        }
+    }
+}
@@ -3,20 +3,25 @@ package ui;
 import auth.AuthService;
 import database.JsonDatabaseManager;
 import model.*;
-import utils.IdGenerator;
+import service.CatalogService;
+import service.ServiceException;
 import utils.ValidationUtils;
 
 import javax.swing.*;
 import javax.swing.table.DefaultTableModel;
 import java.awt.*;
-import java.util.List;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 public class InstructorDashboardFrame extends BaseFrame {
     private final AuthService auth = AuthService.getInstance();
     private final JsonDatabaseManager db = JsonDatabaseManager.getInstance();
+    private final CatalogService catalog = CatalogService.getInstance();
     private JTabbedPane tabbedPane;
     private JTable coursesTable, studentsTable;
     private DefaultTableModel coursesModel, studentsModel;
+    private TableLoader coursesLoader, studentsLoader;
 
     public InstructorDashboardFrame() {
         super("SkillForge - Instructor Dashboard");
@@ -63,6 +68,8 @@ public class InstructorDashboardFrame extends BaseFrame {
         };
         coursesTable = new JTable(coursesModel);
         coursesTable.setFont(REGULAR_FONT);
+        coursesLoader = new TableLoader(coursesModel);
+        panel.add(coursesLoader.getProgressBar(), BorderLayout.NORTH);
 
         panel.add(new JScrollPane(coursesTable), BorderLayout.CENTER);
 
@@ -102,6 +109,8 @@ public class InstructorDashboardFrame extends BaseFrame {
         };
         studentsTable = new JTable(studentsModel);
         studentsTable.setFont(REGULAR_FONT);
+        studentsLoader = new TableLoader(studentsModel);
+        panel.add(studentsLoader.getProgressBar(), BorderLayout.NORTH);
 
         panel.add(new JScrollPane(studentsTable), BorderLayout.CENTER);
         return panel;
@@ -135,34 +144,31 @@ public class InstructorDashboardFrame extends BaseFrame {
     }
 
     private void loadCourses() {
-        coursesModel.setRowCount(0);
         Instructor instructor = (Instructor) auth.getCurrentUser();
-        List<Course> courses = db.getCoursesByInstructor(instructor.getUserId());
-
-        for (Course c : courses) {
-            coursesModel.addRow(new Object[]{
-                    c.getCourseId(), c.getTitle(), c.getApprovalStatus(),
-                    c.getStudentCount(), c.getLessonCount()
-            });
-        }
+        coursesLoader.load(() -> db.getCoursesByInstructor(instructor.getUserId()), c -> new Object[]{
+                c.getCourseId(), c.getTitle(), c.getApprovalStatus(),
+                c.getStudentCount(), c.getLessonCount()
+        });
     }
 
     private void loadStudents() {
-        studentsModel.setRowCount(0);
         Instructor instructor = (Instructor) auth.getCurrentUser();
-        List<Course> myCourses = db.getCoursesByInstructor(instructor.getUserId());
-
-        for (Student student : db.getAllStudents()) {
-            long enrolledCount = myCourses.stream()
-                    .filter(c -> c.getStudents().contains(student.getUserId()))
-                    .count();
-            if (enrolledCount > 0) {
-                studentsModel.addRow(new Object[]{
-                        student.getUserId(), student.getUsername(),
-                        student.getEmail(), enrolledCount
-                });
+        studentsLoader.load(() -> {
+            Map<String, Integer> enrolledCounts = new LinkedHashMap<>();
+            for (Course c : db.getCoursesByInstructor(instructor.getUserId())) {
+                for (String studentId : c.getStudents()) {
+                    enrolledCounts.merge(studentId, 1, Integer::sum);
+                }
             }
-        }
+            return new ArrayList<Map.Entry<String, Integer>>(enrolledCounts.entrySet());
+        }, entry -> {
+            User student = db.findUserById(entry.getKey());
+            if (!(student instanceof Student)) return null;
+            return new Object[]{
+                    student.getUserId(), student.getUsername(),
+                    student.getEmail(), entry.getValue()
+            };
+        });
     }
 
     private void createCourse() {
@@ -195,12 +201,12 @@ public class InstructorDashboardFrame extends BaseFrame {
             }
 
             Instructor instructor = (Instructor) auth.getCurrentUser();
-            String courseId = IdGenerator.generateCourseId();
-            Course course = new Course(courseId, title, desc, instructor.getUserId());
-
-            db.addCourse(course);
-            instructor.addCreatedCourse(courseId);
-            db.updateUser(instructor);
+            try {
+                catalog.createCourse(instructor, title, desc);
+            } catch (ServiceException e) {
+                showError(e.getMessage());
+                return;
+            }
 
             showSuccess("Course created! Status: PENDING (awaiting admin approval)");
             loadData();
@@ -235,9 +241,11 @@ public class InstructorDashboardFrame extends BaseFrame {
                 JOptionPane.OK_CANCEL_OPTION, JOptionPane.PLAIN_MESSAGE);
 
         if (result == JOptionPane.OK_OPTION) {
-            course.setTitle(titleField.getText().trim());
-            course.setDescription(descArea.getText().trim());
-            db.updateCourse(course);
+            synchronized (course) {
+                course.setTitle(titleField.getText().trim());
+                course.setDescription(descArea.getText().trim());
+                db.updateCourse(course);
+            }
             showSuccess("Course updated!");
             loadData();
         }
@@ -262,10 +270,12 @@ public class InstructorDashboardFrame extends BaseFrame {
         String courseId = (String) coursesModel.getValueAt(row, 0);
 
         if (showConfirm("Delete this course? This cannot be undone.")) {
-            Instructor instructor = (Instructor) auth.getCurrentUser();
-            instructor.removeCreatedCourse(courseId);
-            db.updateUser(instructor);
-            db.deleteCourse(courseId);
+            try {
+                catalog.deleteCourse(courseId);
+            } catch (ServiceException e) {
+                showError(e.getMessage());
+                return;
+            }
             showSuccess("Course deleted");
             loadData();
         }
@@ -132,8 +132,10 @@ public class LessonManagementFrame extends BaseFrame {
                         .forEach(lesson::addResource);
             }
 
-            course.addLesson(lesson);
-            db.updateCourse(course);
+            synchronized (course) {
+                course.addLesson(lesson);
+                db.updateCourse(course);
+            }
             showSuccess("Lesson added!");
             loadLessons();
         }
@@ -171,17 +173,19 @@ public class LessonManagementFrame extends BaseFrame {
                 JOptionPane.OK_CANCEL_OPTION, JOptionPane.PLAIN_MESSAGE);
 
         if (result == JOptionPane.OK_OPTION) {
-            lesson.setTitle(titleField.getText().trim());
-            lesson.setContent(contentArea.getText().trim());
-            lesson.setResources(new ArrayList<>());
-            String resources = resourcesField.getText().trim();
-            if (!resources.isEmpty()) {
-                Arrays.stream(resources.split(","))
-                        .map(String::trim)
-                        .filter(s -> !s.isEmpty())
-                        .forEach(lesson::addResource);
+            synchronized (course) {
+                lesson.setTitle(titleField.getText().trim());
+                lesson.setContent(contentArea.getText().trim());
+                lesson.setResources(new ArrayList<>());
+                String resources = resourcesField.getText().trim();
+                if (!resources.isEmpty()) {
+                    Arrays.stream(resources.split(","))
+                            .map(String::trim)
+                            .filter(s -> !s.isEmpty())
+                            .forEach(lesson::addResource);
+                }
+                db.updateCourse(course);
             }
-            db.updateCourse(course);
             showSuccess("Lesson updated!");
             loadLessons();
         }
@@ -214,8 +218,10 @@ public class LessonManagementFrame extends BaseFrame {
         String lessonId = (String) lessonsModel.getValueAt(row, 0);
 
         if (showConfirm("Delete this lesson?")) {
-            course.removeLesson(lessonId);
-            db.updateCourse(course);
+            synchronized (course) {
+                course.removeLesson(lessonId);
+                db.updateCourse(course);
+            }
             showSuccess("Lesson deleted");
             loadLessons();
         }
@@ -2,8 +2,10 @@ package ui;
 
 import auth.AuthService;
 import database.JsonDatabaseManager;
+import database.LessonBody;
 import model.*;
-import utils.IdGenerator;
+import service.ProgressService;
+import service.ServiceException;
 
 import javax.swing.*;
 import java.awt.*;
@@ -114,12 +116,15 @@ public class LessonViewFrame extends BaseFrame {
         Lesson lesson = lessonList.getSelectedValue();
         if (lesson == null) return;
 
-        contentArea.setText("Lesson: " + lesson.getTitle() + "\n\n" + lesson.getContent());
+        LessonBody body = db.getLessonBody(courseId, lesson.getLessonId());
+        if (body == null) return;
+        contentArea.setText("Lesson: " + lesson.getTitle() + "\n\n" + body.getContent());
+        contentArea.setCaretPosition(0);
 
         resourcesPanel.removeAll();
-        if (!lesson.getResources().isEmpty()) {
+        if (!body.getResources().isEmpty()) {
             resourcesPanel.add(createLabel("Resources: "));
-            for (String res : lesson.getResources()) {
+            for (String res : body.getResources()) {
                 JLabel link = new JLabel("<html><u>" + res + "</u></html>");
                 link.setForeground(new Color(70, 130, 180));
                 link.setCursor(new Cursor(Cursor.HAND_CURSOR));
@@ -147,7 +152,7 @@ public class LessonViewFrame extends BaseFrame {
             public void windowClosed(java.awt.event.WindowEvent e) {
                 auth.refreshCurrentUser();
                 displayLesson();
-                checkCourseCompletion();
+                lessonList.repaint();
             }
         });
     }
@@ -157,32 +162,17 @@ public class LessonViewFrame extends BaseFrame {
         if (lesson == null) return;
 
         Student student = (Student) auth.getCurrentUser();
-        student.markLessonComplete(courseId, lesson.getLessonId());
-        db.updateUser(student);
+        ProgressService.CompletionResult result;
+        try {
+            result = ProgressService.getInstance().completeLesson(student, courseId, lesson.getLessonId());
+        } catch (ServiceException e) {
+            showError(e.getMessage());
+            return;
+        }
         showSuccess("Lesson marked as complete!");
         displayLesson();
         lessonList.repaint();
-        checkCourseCompletion();
-    }
-
-    private void checkCourseCompletion() {
-        Student student = (Student) auth.getCurrentUser();
-        CourseProgress progress = student.getProgress().get(courseId);
-        if (progress == null) return;
-
-        int completed = progress.getCompletionCount();
-        int total = course.getLessonCount();
-
-        if (completed == total && total > 0 && !student.hasCertificateForCourse(courseId)) {
-            Certificate cert = new Certificate(
-                    IdGenerator.generateCertificateId(),
-                    student.getUserId(),
-                    courseId,
-                    course.getTitle(),
-                    student.getUsername()
-            );
-            student.addCertificate(cert);
-            db.updateUser(student);
+        if (result.getCertificate() != null) {
             showSuccess("Congratulations! You've completed the course and earned a certificate!");
         }
     }
@@ -54,12 +54,25 @@ public class LoginFrame extends BaseFrame {
         getRootPane().setDefaultButton(loginBtn);
     }
 
+    // Key derivation is deliberately slow, so it runs off the EDT with the
+    // buttons disabled until the result comes back
     private void handleLogin() {
         String email = emailField.getText().trim();
         String password = new String(passwordField.getPassword());
 
-        AuthService.AuthResult result = AuthService.getInstance().login(email, password);
+        setBusy(true);
+        AuthService.getInstance().loginAsync(email, password).whenComplete((result, error) ->
+                SwingUtilities.invokeLater(() -> {
+                    setBusy(false);
+                    if (error != null) {
+                        showError(AuthService.describeFailure(error));
+                    } else {
+                        onLoginResult(result);
+                    }
+                }));
+    }
 
+    private void onLoginResult(AuthService.AuthResult result) {
         if (result.isSuccess()) {
             User user = result.getUser();
             dispose();
@@ -76,6 +89,12 @@ public class LoginFrame extends BaseFrame {
         }
     }
 
+    private void setBusy(boolean busy) {
+        loginBtn.setEnabled(!busy);
+        signupBtn.setEnabled(!busy);
+        setCursor(busy ? Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR) : Cursor.getDefaultCursor());
+    }
+
     private void openSignup() {
         dispose();
         new SignupFrame().setVisible(true);
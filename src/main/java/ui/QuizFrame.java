@@ -1,8 +1,9 @@
 package ui;
 
 import auth.AuthService;
-import database.JsonDatabaseManager;
 import model.*;
+import service.QuizService;
+import service.ServiceException;
 
 import javax.swing.*;
 import java.awt.*;
@@ -14,7 +15,6 @@ public class QuizFrame extends BaseFrame {
     private final Lesson lesson;
     private final Quiz quiz;
     private final AuthService auth = AuthService.getInstance();
-    private final JsonDatabaseManager db = JsonDatabaseManager.getInstance();
     private List<ButtonGroup> answerGroups;
     private JPanel questionsPanel;
 
@@ -44,7 +44,7 @@ public class QuizFrame extends BaseFrame {
         questionsPanel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
 
         answerGroups = new ArrayList<>();
-        List<Question> questions = quiz.getQuestions();
+        List<Question> questions = quiz.viewQuestions();
 
         for (int i = 0; i < questions.size(); i++) {
             Question q = questions.get(i);
@@ -110,23 +110,26 @@ public class QuizFrame extends BaseFrame {
             answers.add(Integer.parseInt(selection.getActionCommand()));
         }
 
-        int score = quiz.calculateScore(answers);
-        boolean passed = quiz.isPassing(score);
-
         Student student = (Student) auth.getCurrentUser();
-        QuizAttempt attempt = new QuizAttempt(
-                lesson.getLessonId(), course.getCourseId(), score, passed
-        );
-        student.addQuizAttempt(attempt);
+        QuizService.QuizResult result;
+        try {
+            result = QuizService.getInstance().submit(student, course.getCourseId(), lesson.getLessonId(), answers);
+        } catch (ServiceException e) {
+            showError(e.getMessage());
+            return;
+        }
+        int score = result.getScore();
+        boolean passed = result.isPassed();
 
         if (passed) {
-            student.markLessonComplete(course.getCourseId(), lesson.getLessonId());
-            showSuccess("Quiz Passed!\nScore: " + score + "% (Passing: " + quiz.getPassingScore() + "%)");
+            showSuccess("Quiz Passed!\nScore: " + score + "% (Passing: " + result.getPassingScore() + "%)");
         } else {
-            showError("Quiz Failed\nScore: " + score + "% (Passing: " + quiz.getPassingScore() + "%)\nTry again!");
+            showError("Quiz Failed\nScore: " + score + "% (Passing: " + result.getPassingScore() + "%)\nTry again!");
+        }
+        if (result.getCertificate() != null) {
+            showSuccess("Congratulations! You've completed the course and earned a certificate!");
         }
 
-        db.updateUser(student);
         showResults(answers, score, passed);
     }
 
@@ -139,7 +142,7 @@ public class QuizFrame extends BaseFrame {
         questionsPanel.add(resultLbl);
         questionsPanel.add(Box.createVerticalStrut(15));
 
-        List<Question> questions = quiz.getQuestions();
+        List<Question> questions = quiz.viewQuestions();
         for (int i = 0; i < questions.size(); i++) {
             Question q = questions.get(i);
             int userAnswer = answers.get(i);
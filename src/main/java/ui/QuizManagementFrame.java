@@ -105,14 +105,16 @@ public class QuizManagementFrame extends BaseFrame {
     }
 
     private void updatePassingScore() {
-        if (lesson.getQuiz() == null) {
-            Quiz quiz = new Quiz(IdGenerator.generateQuizId(), new ArrayList<>(),
-                    (int) passingScoreSpinner.getValue());
-            lesson.setQuiz(quiz);
-        } else {
-            lesson.getQuiz().setPassingScore((int) passingScoreSpinner.getValue());
+        synchronized (course) {
+            if (lesson.getQuiz() == null) {
+                Quiz quiz = new Quiz(IdGenerator.generateQuizId(), new ArrayList<>(),
+                        (int) passingScoreSpinner.getValue());
+                lesson.setQuiz(quiz);
+            } else {
+                lesson.getQuiz().setPassingScore((int) passingScoreSpinner.getValue());
+            }
+            db.updateCourse(course);
         }
-        db.updateCourse(course);
     }
 
     private void addQuestion() {
@@ -120,13 +122,15 @@ public class QuizManagementFrame extends BaseFrame {
         dialog.setVisible(true);
 
         if (dialog.isConfirmed()) {
-            if (lesson.getQuiz() == null) {
-                Quiz quiz = new Quiz(IdGenerator.generateQuizId(), new ArrayList<>(),
-                        (int) passingScoreSpinner.getValue());
-                lesson.setQuiz(quiz);
+            synchronized (course) {
+                if (lesson.getQuiz() == null) {
+                    Quiz quiz = new Quiz(IdGenerator.generateQuizId(), new ArrayList<>(),
+                            (int) passingScoreSpinner.getValue());
+                    lesson.setQuiz(quiz);
+                }
+                lesson.getQuiz().addQuestion(dialog.getQuestion());
+                db.updateCourse(course);
             }
-            lesson.getQuiz().addQuestion(dialog.getQuestion());
-            db.updateCourse(course);
             loadQuestions();
         }
     }
@@ -148,10 +152,12 @@ public class QuizManagementFrame extends BaseFrame {
 
             if (dialog.isConfirmed()) {
                 Question updated = dialog.getQuestion();
-                question.setQuestionText(updated.getQuestionText());
-                question.setOptions(updated.getOptions());
-                question.setCorrectAnswerIndex(updated.getCorrectAnswerIndex());
-                db.updateCourse(course);
+                synchronized (course) {
+                    question.setQuestionText(updated.getQuestionText());
+                    question.setOptions(updated.getOptions());
+                    question.setCorrectAnswerIndex(updated.getCorrectAnswerIndex());
+                    db.updateCourse(course);
+                }
                 loadQuestions();
             }
         }
@@ -166,8 +172,10 @@ public class QuizManagementFrame extends BaseFrame {
         String questionId = (String) questionsModel.getValueAt(row, 0);
 
         if (showConfirm("Delete this question?")) {
-            lesson.getQuiz().removeQuestion(questionId);
-            db.updateCourse(course);
+            synchronized (course) {
+                lesson.getQuiz().removeQuestion(questionId);
+                db.updateCourse(course);
+            }
             loadQuestions();
         }
     }
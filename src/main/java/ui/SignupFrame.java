@@ -74,9 +74,19 @@ public class SignupFrame extends BaseFrame {
         String confirmPassword = new String(confirmPasswordField.getPassword());
         Role role = roleCombo.getSelectedIndex() == 0 ? Role.STUDENT : Role.INSTRUCTOR;
 
-        AuthService.AuthResult result = AuthService.getInstance()
-                .signup(username, email, password, confirmPassword, role);
+        setBusy(true);
+        AuthService.getInstance().signupAsync(username, email, password, confirmPassword, role)
+                .whenComplete((result, error) -> SwingUtilities.invokeLater(() -> {
+                    setBusy(false);
+                    if (error != null) {
+                        showError(AuthService.describeFailure(error));
+                    } else {
+                        onSignupResult(result);
+                    }
+                }));
+    }
 
+    private void onSignupResult(AuthService.AuthResult result) {
         if (result.isSuccess()) {
             showSuccess("Account created successfully!");
             dispose();
@@ -91,6 +101,12 @@ public class SignupFrame extends BaseFrame {
         }
     }
 
+    private void setBusy(boolean busy) {
+        signupBtn.setEnabled(!busy);
+        backBtn.setEnabled(!busy);
+        setCursor(busy ? Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR) : Cursor.getDefaultCursor());
+    }
+
     private void backToLogin() {
         dispose();
         new LoginFrame().setVisible(true);
@@ -3,11 +3,13 @@ package ui;
 import auth.AuthService;
 import database.JsonDatabaseManager;
 import model.*;
+import service.EnrollmentService;
+import service.ServiceException;
 
 import javax.swing.*;
 import javax.swing.table.DefaultTableModel;
 import java.awt.*;
-import java.util.List;
+import java.util.ArrayList;
 
 public class StudentDashboardFrame extends BaseFrame {
     private final AuthService auth = AuthService.getInstance();
@@ -15,6 +17,7 @@ public class StudentDashboardFrame extends BaseFrame {
     private JTabbedPane tabbedPane;
     private JTable availableCoursesTable, enrolledCoursesTable, certificatesTable;
     private DefaultTableModel availableModel, enrolledModel, certificatesModel;
+    private TableLoader availableLoader, enrolledLoader, certificatesLoader;
 
     public StudentDashboardFrame() {
         super("SkillForge - Student Dashboard");
@@ -65,6 +68,8 @@ public class StudentDashboardFrame extends BaseFrame {
         };
         availableCoursesTable = new JTable(availableModel);
         availableCoursesTable.setFont(REGULAR_FONT);
+        availableLoader = new TableLoader(availableModel);
+        panel.add(availableLoader.getProgressBar(), BorderLayout.NORTH);
 
         JScrollPane scrollPane = new JScrollPane(availableCoursesTable);
         panel.add(scrollPane, BorderLayout.CENTER);
@@ -91,6 +96,8 @@ public class StudentDashboardFrame extends BaseFrame {
         };
         enrolledCoursesTable = new JTable(enrolledModel);
         enrolledCoursesTable.setFont(REGULAR_FONT);
+        enrolledLoader = new TableLoader(enrolledModel);
+        panel.add(enrolledLoader.getProgressBar(), BorderLayout.NORTH);
 
         JScrollPane scrollPane = new JScrollPane(enrolledCoursesTable);
         panel.add(scrollPane, BorderLayout.CENTER);
@@ -114,6 +121,8 @@ public class StudentDashboardFrame extends BaseFrame {
         };
         certificatesTable = new JTable(certificatesModel);
         certificatesTable.setFont(REGULAR_FONT);
+        certificatesLoader = new TableLoader(certificatesModel);
+        panel.add(certificatesLoader.getProgressBar(), BorderLayout.NORTH);
 
         JScrollPane scrollPane = new JScrollPane(certificatesTable);
         panel.add(scrollPane, BorderLayout.CENTER);
@@ -135,47 +144,37 @@ public class StudentDashboardFrame extends BaseFrame {
     }
 
     private void loadAvailableCourses() {
-        availableModel.setRowCount(0);
         Student student = (Student) auth.getCurrentUser();
-        List<Course> courses = db.getApprovedCourses();
-
-        for (Course c : courses) {
-            if (!student.getEnrolledCourses().contains(c.getCourseId())) {
-                User instructor = db.findUserById(c.getInstructorId());
-                String instructorName = instructor != null ? instructor.getUsername() : "Unknown";
-                availableModel.addRow(new Object[]{
-                        c.getCourseId(), c.getTitle(), c.getDescription(),
-                        instructorName, c.getLessonCount()
-                });
-            }
-        }
+        availableLoader.load(db::getApprovedCourses, c -> {
+            if (student.getEnrolledCourses().contains(c.getCourseId())) return null;
+            User instructor = db.findUserById(c.getInstructorId());
+            String instructorName = instructor != null ? instructor.getUsername() : "Unknown";
+            return new Object[]{
+                    c.getCourseId(), c.getTitle(), c.getDescription(),
+                    instructorName, c.getLessonCount()
+            };
+        });
     }
 
     private void loadEnrolledCourses() {
-        enrolledModel.setRowCount(0);
         Student student = (Student) auth.getCurrentUser();
-
-        for (String courseId : student.getEnrolledCourses()) {
+        enrolledLoader.load(() -> new ArrayList<>(student.getEnrolledCourses()), courseId -> {
             Course c = db.findCourseById(courseId);
-            if (c != null) {
-                CourseProgress progress = student.getProgress().get(courseId);
-                int completed = progress != null ? progress.getCompletionCount() : 0;
-                int total = c.getLessonCount();
-                String progressStr = completed + "/" + total + " lessons";
-                String status = completed == total && total > 0 ? "Completed" : "In Progress";
-                enrolledModel.addRow(new Object[]{c.getCourseId(), c.getTitle(), progressStr, status});
-            }
-        }
+            if (c == null) return null;
+            CourseProgress progress = student.getProgress().get(courseId);
+            int completed = progress != null ? progress.getCompletionCount() : 0;
+            int total = c.getLessonCount();
+            String progressStr = completed + "/" + total + " lessons";
+            String status = completed == total && total > 0 ? "Completed" : "In Progress";
+            return new Object[]{c.getCourseId(), c.getTitle(), progressStr, status};
+        });
     }
 
     private void loadCertificates() {
-        certificatesModel.setRowCount(0);
         User user = auth.getCurrentUser();
-        for (Certificate cert : user.getCertificates()) {
-            certificatesModel.addRow(new Object[]{
-                    cert.getCertificateId(), cert.getCourseTitle(), cert.getFormattedIssueDate()
-            });
-        }
+        certificatesLoader.load(() -> new ArrayList<>(user.getCertificates()), cert -> new Object[]{
+                cert.getCertificateId(), cert.getCourseTitle(), cert.getFormattedIssueDate()
+        });
     }
 
     private void enrollInCourse() {
@@ -189,10 +188,12 @@ public class StudentDashboardFrame extends BaseFrame {
         Student student = (Student) auth.getCurrentUser();
 
         if (showConfirm("Enroll in '" + course.getTitle() + "'?")) {
-            student.enrollInCourse(courseId);
-            course.addStudent(student.getUserId());
-            db.updateUser(student);
-            db.updateCourse(course);
+            try {
+                EnrollmentService.getInstance().enroll(student, courseId);
+            } catch (ServiceException e) {
+                showError(e.getMessage());
+                return;
+            }
             showSuccess("Successfully enrolled!");
             loadData();
         }
@@ -0,0 +1,127 @@
+package ui;
+
+import javax.swing.*;
+import javax.swing.table.DefaultTableModel;
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Function;
+
+// Fills a DefaultTableModel from a background thread. Items are fetched and
+// turned into rows off the EDT, rows reach the model in batches with one table
+// event each, and starting a new load cancels the one still running so a
+// refresh never mixes old and new rows. Call load() and cancel() on the EDT
+public class TableLoader {
+    private static final int BATCH_SIZE = 250;
+
+    private final DefaultTableModel model;
+    private final JProgressBar progressBar;
+    private Loader<?> current;
+
+    public TableLoader(DefaultTableModel model) {
+        this.model = model;
+        progressBar = new JProgressBar(0, 100);
+        progressBar.setStringPainted(true);
+        progressBar.setVisible(false);
+    }
+
+    // Shown only while a load is running; place it next to the table
+    public JProgressBar getProgressBar() {
+        return progressBar;
+    }
+
+    // toRow may return null to leave an item out
+    public <T> void load(Callable<? extends List<T>> items, Function<T, Object[]> toRow) {
+        cancel();
+        model.setRowCount(0);
+        progressBar.setValue(0);
+        progressBar.setVisible(true);
+        current = new Loader<>(items, toRow);
+        current.execute();
+    }
+
+    public void cancel() {
+        if (current != null) {
+            current.cancel(true);
+            current = null;
+            progressBar.setVisible(false);
+        }
+    }
+
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private void appendRows(List<Object[]> rows) {
+        if (rows.isEmpty()) return;
+        int first = model.getRowCount();
+        Vector<Vector> data = model.getDataVector();
+        for (Object[] row : rows) {
+            data.add(new Vector<>(Arrays.asList(row)));
+        }
+        model.fireTableRowsInserted(first, first + rows.size() - 1);
+    }
+
+    private class Loader<T> extends SwingWorker<Void, List<Object[]>> {
+        private final Callable<? extends List<T>> items;
+        private final Function<T, Object[]> toRow;
+
+        Loader(Callable<? extends List<T>> items, Function<T, Object[]> toRow) {
+            this.items = items;
+            this.toRow = toRow;
+            addPropertyChangeListener(e -> {
+                if ("progress".equals(e.getPropertyName()) && current == this) {
+                    progressBar.setValue((Integer) e.getNewValue());
+                }
+            });
+        }
+
+        @Override
+        protected Void doInBackground() throws Exception {
+            List<T> list = items.call();
+            List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+            for (int i = 0; i < list.size(); i++) {
+                if (isCancelled()) return null;
+                Object[] row = toRow.apply(list.get(i));
+                if (row != null) batch.add(row);
+                if (batch.size() == BATCH_SIZE) {
+                    publish(batch);
+                    batch = new ArrayList<>(BATCH_SIZE);
+                    setProgress((i + 1) * 100 / list.size());
+                }
+            }
+            if (!batch.isEmpty()) publish(batch);
+            return null;
+        }
+
+        // Batches that arrive together are merged into a single insert
+        @Override
+        protected void process(List<List<Object[]>> batches) {
+            if (current != this || isCancelled()) return;
+            List<Object[]> rows = new ArrayList<>();
+            for (List<Object[]> batch : batches) rows.addAll(batch);
+            appendRows(rows);
+        }
+
+        @Override
+        protected void done() {
+            if (current != this) return;
+            current = null;
+            progressBar.setVisible(false);
+            try {
+                get();
+            } catch (CancellationException e) {
+                // Superseded by a newer load
+            } catch (Exception e) {
+                showLoadError(progressBar, e);
+            }
+        }
+    }
+
+    // Same dialog the frames show for a failed action, over the window the
+    // table is in. Shared with EntityTableModel
+    static void showLoadError(JComponent inWindow, Exception e) {
+        Throwable cause = e instanceof ExecutionException && e.getCause() != null ? e.getCause() : e;
+        String message = cause.getMessage() != null ? cause.getMessage() : cause.toString();
+        JOptionPane.showMessageDialog(SwingUtilities.getWindowAncestor(inWindow),
+                "Could not load the table: " + message, "Error", JOptionPane.ERROR_MESSAGE);
+    }
+}
@@ -0,0 +1,74 @@
+package utils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Hands out ranges of ID numbers recorded in a shared high-water-mark file.
+// Reservations take an exclusive file lock, so separate processes working on
+// the same data directory always receive disjoint ranges. The file holds one
+// "<prefix>=<last reserved number>" line per kind
+public class IdBlockAllocator {
+    private final Path file;
+
+    public IdBlockAllocator(Path file) {
+        this.file = file;
+    }
+
+    // Reserves count numbers above both the recorded high-water mark and
+    // floor (the largest number already in use), returning the first one
+    public synchronized long reserve(String prefix, long floor, int count) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            FileLock lock = channel.lock();
+            try {
+                Map<String, Long> marks = read(channel);
+                long start = Math.max(marks.getOrDefault(prefix, 0L), floor) + 1;
+                marks.put(prefix, start + count - 1);
+                write(channel, marks);
+                return start;
+            } finally {
+                lock.release();
+            }
+        }
+    }
+
+    private static Map<String, Long> read(FileChannel channel) throws IOException {
+        Map<String, Long> marks = new LinkedHashMap<>();
+        ByteBuffer buffer = ByteBuffer.allocate((int) channel.size());
+        // A positional read may return fewer bytes than asked for
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, buffer.position()) < 0) break;
+        }
+        String text = new String(buffer.array(), 0, buffer.position(), StandardCharsets.UTF_8);
+        for (String line : text.split("\n")) {
+            int eq = line.indexOf('=');
+            if (eq <= 0) continue;
+            long value = IdCodec.parse(line.substring(eq + 1).trim(), "");
+            if (value >= 0) marks.put(line.substring(0, eq).trim(), value);
+        }
+        return marks;
+    }
+
+    private static void write(FileChannel channel, Map<String, Long> marks) throws IOException {
+        StringBuilder text = new StringBuilder();
+        for (Map.Entry<String, Long> e : marks.entrySet()) {
+            text.append(e.getKey()).append('=').append(e.getValue()).append('\n');
+        }
+        byte[] bytes = text.toString().getBytes(StandardCharsets.UTF_8);
+        // Overwrite in place, then trim; the marks only ever grow, so an
+        // interrupted write leaves numbers at least as high as before
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        while (buffer.hasRemaining()) {
+            channel.write(buffer, buffer.position());
+        }
+        channel.truncate(bytes.length);
+        channel.force(false);
+    }
+}
@@ -0,0 +1,43 @@
+package utils;
+
+// Formats and parses IDs of the form <prefix><number>, with the number padded
+// to at least three digits ("USR007", "CERT1234"). Both directions work on
+// chars directly: no String.format, regex, replace or exceptions
+public final class IdCodec {
+    private static final int MIN_DIGITS = 3;
+
+    private IdCodec() {}
+
+    public static String format(String prefix, long number) {
+        if (number < 0) throw new IllegalArgumentException("Negative id " + number);
+        int digits = 1;
+        for (long n = number / 10; n > 0; n /= 10) digits++;
+        int width = Math.max(MIN_DIGITS, digits);
+        int prefixLength = prefix.length();
+        char[] chars = new char[prefixLength + width];
+        prefix.getChars(0, prefixLength, chars, 0);
+        long n = number;
+        for (int i = chars.length - 1; i >= prefixLength; i--) {
+            chars[i] = (char) ('0' + (n % 10));
+            n /= 10;
+        }
+        return new String(chars);
+    }
+
+    // Number part of id, or -1 if id is null, has a different prefix, has no
+    // digits, contains anything but digits after the prefix, or overflows
+    public static long parse(String id, String prefix) {
+        if (id == null || !id.startsWith(prefix)) return -1;
+        int length = id.length();
+        int start = prefix.length();
+        if (start == length) return -1;
+        long value = 0;
+        for (int i = start; i < length; i++) {
+            char c = id.charAt(i);
+            if (c < '0' || c > '9') return -1;
+            value = value * 10 + (c - '0');
+            if (value > Integer.MAX_VALUE) return -1;
+        }
+        return value;
+    }
+}
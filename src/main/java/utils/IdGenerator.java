@@ -1,48 +1,103 @@
 package utils;
 
-import java.util.concurrent.atomic.AtomicInteger;
+import java.io.IOException;
 
 public class IdGenerator {
-    private static final AtomicInteger userCounter = new AtomicInteger(100);
-    private static final AtomicInteger courseCounter = new AtomicInteger(100);
-    private static final AtomicInteger lessonCounter = new AtomicInteger(100);
-    private static final AtomicInteger quizCounter = new AtomicInteger(100);
-    private static final AtomicInteger questionCounter = new AtomicInteger(100);
-    private static final AtomicInteger certificateCounter = new AtomicInteger(100);
+    private static final Sequence userSequence = new Sequence("USR");
+    private static final Sequence courseSequence = new Sequence("CRS");
+    private static final Sequence lessonSequence = new Sequence("LSN");
+    private static final Sequence quizSequence = new Sequence("QZ");
+    private static final Sequence questionSequence = new Sequence("Q");
+    private static final Sequence certificateSequence = new Sequence("CERT");
+    private static final Sequence[] ALL = {
+            userSequence, courseSequence, lessonSequence, quizSequence, questionSequence, certificateSequence
+    };
 
     private IdGenerator() {}
 
     public static String generateUserId() {
-        return "USR" + String.format("%03d", userCounter.incrementAndGet());
+        return userSequence.nextId();
     }
 
     public static String generateCourseId() {
-        return "CRS" + String.format("%03d", courseCounter.incrementAndGet());
+        return courseSequence.nextId();
     }
 
     public static String generateLessonId() {
-        return "LSN" + String.format("%03d", lessonCounter.incrementAndGet());
+        return lessonSequence.nextId();
     }
 
     public static String generateQuizId() {
-        return "QZ" + String.format("%03d", quizCounter.incrementAndGet());
+        return quizSequence.nextId();
     }
 
     public static String generateQuestionId() {
-        return "Q" + String.format("%03d", questionCounter.incrementAndGet());
+        return questionSequence.nextId();
     }
 
     public static String generateCertificateId() {
-        return "CERT" + String.format("%03d", certificateCounter.incrementAndGet());
+        return certificateSequence.nextId();
     }
 
     public static void initializeCounters(int maxUserId, int maxCourseId,
                                           int maxLessonId, int maxQuizId, int maxQuestionId, int maxCertId) {
-        userCounter.set(maxUserId);
-        courseCounter.set(maxCourseId);
-        lessonCounter.set(maxLessonId);
-        quizCounter.set(maxQuizId);
-        questionCounter.set(maxQuestionId);
-        certificateCounter.set(maxCertId);
-    }
-}
\ No newline at end of file
+        userSequence.reset(maxUserId);
+        courseSequence.reset(maxCourseId);
+        lessonSequence.reset(maxLessonId);
+        quizSequence.reset(maxQuizId);
+        questionSequence.reset(maxQuestionId);
+        certificateSequence.reset(maxCertId);
+    }
+
+    // From now on numbers come from blocks reserved through the allocator, so
+    // several processes sharing one data directory never issue the same ID.
+    // Without an allocator each sequence simply counts up from its last reset
+    public static void useBlockAllocator(IdBlockAllocator allocator, int blockSize) {
+        for (Sequence sequence : ALL) {
+            sequence.attach(allocator, Math.max(1, blockSize));
+        }
+    }
+
+    private static class Sequence {
+        private final String prefix;
+        private long next;
+        private long end = Long.MAX_VALUE;
+        private IdBlockAllocator allocator;
+        private int blockSize;
+
+        Sequence(String prefix) {
+            this.prefix = prefix;
+            this.next = 101;
+        }
+
+        synchronized String nextId() {
+            if (next >= end) {
+                refill();
+            }
+            return IdCodec.format(prefix, next++);
+        }
+
+        synchronized void reset(long max) {
+            next = max + 1;
+            if (allocator != null) end = next;
+        }
+
+        synchronized void attach(IdBlockAllocator allocator, int blockSize) {
+            this.allocator = allocator;
+            this.blockSize = blockSize;
+            end = next;
+        }
+
+        // If the shared file cannot be used, keep counting locally rather than
+        // fail the caller; IDs stay unique within this process
+        private void refill() {
+            try {
+                next = allocator.reserve(prefix, next - 1, blockSize);
+                end = next + blockSize;
+            } catch (IOException e) {
+                e.printStackTrace();
+                end = next + blockSize;
+            }
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+// Times PBKDF2 at several iteration counts to pick skillforge.pbkdf2.iterations
+// for the machine the server runs on. Reports single-hash latency and the
+// login throughput of all cores, and suggests the largest count that stays
+// within the latency budget:
+//   java -cp target/classes utils.PasswordHashBenchmark [budgetMs] [samples]
+public class PasswordHashBenchmark {
+    private static final int[] ITERATIONS = {100_000, 210_000, 310_000, 450_000, 600_000, 900_000};
+
+    public static void main(String[] args) throws Exception {
+        long budgetMs = args.length > 0 ? Long.parseLong(args[0]) : 250;
+        int samples = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        int cores = Runtime.getRuntime().availableProcessors();
+        byte[] salt = new byte[16];
+
+        // Warm up the JIT so the first row is not penalized
+        for (int i = 0; i < 5; i++) PasswordUtils.pbkdf2("warmup-password", salt, 50_000);
+
+        System.out.printf("%d cores, budget %d ms per hash%n", cores, budgetMs);
+        System.out.printf("%12s %12s %12s %16s%n", "iterations", "median ms", "p95 ms", "logins/s (all)");
+        int suggested = ITERATIONS[0];
+        for (int iterations : ITERATIONS) {
+            long[] times = new long[samples];
+            for (int i = 0; i < samples; i++) {
+                long start = System.nanoTime();
+                PasswordUtils.pbkdf2("benchmark-password", salt, iterations);
+                times[i] = System.nanoTime() - start;
+            }
+            java.util.Arrays.sort(times);
+            double medianMs = times[samples / 2] / 1e6;
+            double p95Ms = times[Math.min(samples - 1, (int) (samples * 0.95))] / 1e6;
+            double throughput = parallelThroughput(iterations, cores, samples);
+            System.out.printf("%,12d %12.1f %12.1f %16.1f%n", iterations, medianMs, p95Ms, throughput);
+            if (p95Ms <= budgetMs) suggested = iterations;
+        }
+        System.out.printf("Suggested: -Dskillforge.pbkdf2.iterations=%d%n", suggested);
+    }
+
+    private static double parallelThroughput(int iterations, int threads, int perThread) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Callable<Void>> tasks = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                tasks.add(() -> {
+                    byte[] salt = new byte[16];
+                    for (int i = 0; i < perThread; i++) PasswordUtils.pbkdf2("benchmark-password", salt, iterations);
+                    return null;
+                });
+            }
+            long start = System.nanoTime();
+            for (Future<Void> f : pool.invokeAll(tasks)) f.get();
+            double seconds = (System.nanoTime() - start) / 1e9;
+            return threads * perThread / seconds;
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
@@ -1,33 +1,92 @@
 package utils;
 
 
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
 import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.HexFormat;
 
+// Hashes are stored as "pbkdf2-sha256$<iterations>$<salt>$<hash>" (base64).
+// Hashes written before that format are bare SHA-256 hex; they still verify
+// and needsRehash() reports them so login can upgrade them
 public class PasswordUtils {
+    private static final String PBKDF2_PREFIX = "pbkdf2-sha256";
+    private static final String PBKDF2_ALGORITHM = "PBKDF2WithHmacSHA256";
+    private static final int SALT_BYTES = 16;
+    private static final int HASH_BITS = 256;
+    private static final SecureRandom RANDOM = new SecureRandom();
 
     private PasswordUtils() {}
 
+    public static int getIterations() {
+        return Integer.getInteger("skillforge.pbkdf2.iterations", 310_000);
+    }
+
     public static String hashPassword(String password) {
+        return hashPassword(password, getIterations());
+    }
+
+    public static String hashPassword(String password, int iterations) {
+        byte[] salt = new byte[SALT_BYTES];
+        RANDOM.nextBytes(salt);
+        byte[] hash = pbkdf2(password, salt, iterations);
+        Base64.Encoder b64 = Base64.getEncoder().withoutPadding();
+        return PBKDF2_PREFIX + "$" + iterations + "$" + b64.encodeToString(salt) + "$" + b64.encodeToString(hash);
+    }
+
+    public static boolean verifyPassword(String password, String hash) {
+        if (password == null || hash == null) return false;
+        if (!hash.startsWith(PBKDF2_PREFIX + "$")) {
+            byte[] expected = legacySha256(password).getBytes(StandardCharsets.US_ASCII);
+            return MessageDigest.isEqual(expected, hash.getBytes(StandardCharsets.US_ASCII));
+        }
+        String[] parts = hash.split("\\$");
+        if (parts.length != 4) return false;
+        try {
+            int iterations = Integer.parseInt(parts[1]);
+            Base64.Decoder b64 = Base64.getDecoder();
+            byte[] salt = b64.decode(parts[2]);
+            byte[] expected = b64.decode(parts[3]);
+            return MessageDigest.isEqual(expected, pbkdf2(password, salt, iterations));
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    // True for legacy SHA-256 hashes and for PBKDF2 hashes below the
+    // currently configured cost
+    public static boolean needsRehash(String hash) {
+        if (hash == null || !hash.startsWith(PBKDF2_PREFIX + "$")) return true;
+        String[] parts = hash.split("\\$");
+        try {
+            return parts.length != 4 || Integer.parseInt(parts[1]) < getIterations();
+        } catch (NumberFormatException e) {
+            return true;
+        }
+    }
+
+    static byte[] pbkdf2(String password, byte[] salt, int iterations) {
+        PBEKeySpec spec = new PBEKeySpec(password.toCharArray(), salt, iterations, HASH_BITS);
+        try {
+            return SecretKeyFactory.getInstance(PBKDF2_ALGORITHM).generateSecret(spec).getEncoded();
+        } catch (GeneralSecurityException e) {
+            throw new RuntimeException(PBKDF2_ALGORITHM + " not available", e);
+        } finally {
+            spec.clearPassword();
+        }
+    }
+
+    private static String legacySha256(String password) {
         try {
             MessageDigest digest = MessageDigest.getInstance("SHA-256");
-            byte[] hash = digest.digest(password.getBytes(StandardCharsets.UTF_8));
-            StringBuilder hexString = new StringBuilder();
-            for (byte b : hash) {
-                String hex = Integer.toHexString(0xff & b);
-                if (hex.length() == 1) {
-                    hexString.append('0');
-                }
-                hexString.append(hex);
-            }
-            return hexString.toString();
+            return HexFormat.of().formatHex(digest.digest(password.getBytes(StandardCharsets.UTF_8)));
         } catch (NoSuchAlgorithmException e) {
             throw new RuntimeException("SHA-256 algorithm not found", e);
         }
     }
-
-    public static boolean verifyPassword(String password, String hash) {
-        return hashPassword(password).equals(hash);
-    }
-}
\ No newline at end of file
+}
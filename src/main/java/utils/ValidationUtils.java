@@ -1,6 +1,7 @@
 package utils;
 
 
+import java.util.Locale;
 import java.util.regex.Pattern;
 
 public class ValidationUtils {
@@ -16,6 +17,12 @@ public class ValidationUtils {
         return email != null && EMAIL_PATTERN.matcher(email).matches();
     }
 
+    // Key under which an email is indexed and throttled, so "Ann@x.io " and
+    // "ann@x.io" are the same account everywhere
+    public static String normalizeEmail(String email) {
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+
     public static boolean isValidPassword(String password) {
         return password != null && password.length() >= MIN_PASSWORD_LENGTH;
     }
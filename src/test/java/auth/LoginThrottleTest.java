@@ -0,0 +1,39 @@
+package auth;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoginThrottleTest {
+    @Test
+    void trackedKeysStayWithinTheCap() {
+        LoginThrottle throttle = new LoginThrottle(5, 6, 30, 60, 60_000, 16);
+        for (int i = 0; i < 1_000; i++) {
+            throttle.tryAcquire("user" + i + "@example.com", "10.0.0." + i);
+            throttle.recordMissing("missing" + i + "@example.com");
+        }
+        assertEquals(3 * 16, throttle.trackedCount());
+    }
+
+    @Test
+    void recentlyUsedBucketSurvivesEviction() {
+        LoginThrottle throttle = new LoginThrottle(1, 1, 30, 60, 60_000, 16);
+        assertTrue(throttle.tryAcquire("victim@example.com", null));
+        for (int i = 0; i < 100; i++) {
+            assertFalse(throttle.tryAcquire("victim@example.com", null));
+            throttle.tryAcquire("other" + i + "@example.com", null);
+        }
+    }
+
+    @Test
+    void emailsAreKeyedLikeTheUserIndex() {
+        LoginThrottle throttle = new LoginThrottle(1, 1, 30, 60, 60_000, 16);
+        assertTrue(throttle.tryAcquire("Ann@Example.com", null));
+        assertFalse(throttle.tryAcquire(" ann@example.com ", null));
+
+        throttle.recordMissing("Bob@Example.com ");
+        assertTrue(throttle.isKnownMissing("bob@example.com"));
+        throttle.forgetMissing("BOB@example.com");
+        assertFalse(throttle.isKnownMissing("bob@example.com"));
+    }
+}
@@ -0,0 +1,123 @@
+package database;
+
+import com.google.gson.Gson;
+import model.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BinarySnapshotTest {
+    @TempDir
+    Path dir;
+
+    private final Gson gson = JsonDatabaseManager.createGson();
+
+    @BeforeEach
+    void configure() {
+        System.setProperty("skillforge.wal", "false");
+        System.setProperty("skillforge.async", "false");
+        System.setProperty("skillforge.binarySnapshot", "true");
+    }
+
+    @AfterEach
+    void reset() {
+        System.clearProperty("skillforge.wal");
+        System.clearProperty("skillforge.async");
+        System.clearProperty("skillforge.binarySnapshot");
+    }
+
+    @Test
+    void roundTripKeepsEveryField() throws IOException {
+        LocalDateTime when = LocalDateTime.of(2025, 3, 14, 15, 9, 26);
+        Course course = new Course("CRS001", "Java", "Basics", "USR002");
+        course.setApprovalStatus(ApprovalStatus.APPROVED);
+        course.setCreatedAt(when);
+        Lesson lesson = new Lesson("LSN001", "Intro", "Hello");
+        Quiz quiz = new Quiz("QZ001", new ArrayList<>(), 60);
+        quiz.addQuestion(new Question("Q001", "1 + 1?", List.of("1", "2"), 1));
+        lesson.setQuiz(quiz);
+        course.addLesson(lesson);
+        course.addStudent("USR003");
+
+        Instructor instructor = new Instructor("USR002", "ines", "ines@example.com", "hash2");
+        instructor.setCreatedAt(when);
+        instructor.addCreatedCourse("CRS001");
+        Student student = new Student("USR003", "sam", "sam@example.com", "hash3");
+        student.setCreatedAt(when);
+        student.enrollInCourse("CRS001");
+        student.markLessonComplete("CRS001", "LSN001");
+        QuizAttempt attempt = new QuizAttempt("LSN001", "CRS001", 100, true);
+        attempt.setAttemptDate(when);
+        student.addQuizAttempt(attempt);
+        Certificate cert = new Certificate("CERT001", "USR003", "CRS001", "Java", "sam");
+        cert.setIssueDate(when);
+        student.addCertificate(cert);
+        Admin admin = new Admin("USR001", "root", "root@example.com", "hash1");
+        admin.setCreatedAt(when);
+        List<User> users = List.of(admin, instructor, student);
+
+        Path file = dir.resolve("snapshot.bin");
+        BinarySnapshot.write(file, users, List.of(course), 42);
+        BinarySnapshot.Contents contents = BinarySnapshot.read(file);
+
+        assertEquals(42, contents.generation);
+        assertEquals(42, BinarySnapshot.readGeneration(file));
+        assertEquals(gson.toJson(users), gson.toJson(contents.users));
+        assertEquals(gson.toJson(List.of(course)), gson.toJson(contents.courses));
+        assertInstanceOf(Student.class, contents.users.get(2));
+    }
+
+    @Test
+    void staleSnapshotIsIgnoredWhateverItsTimestamp() throws IOException {
+        JsonDatabaseManager db = new JsonDatabaseManager(dir);
+        db.addUser(new Student("USR901", "a", "a@example.com", "h"));
+        db.checkpoint();
+        Path snapshot = dir.resolve("snapshot.bin");
+        BinarySnapshot.Contents before = BinarySnapshot.read(snapshot);
+        db.addUser(new Student("USR902", "b", "b@example.com", "h"));
+        db.shutdown();
+
+        // Synchronous saves rewrite only users.json; put the older state back
+        // with a later mtime than the JSON, as a coarse clock could
+        BinarySnapshot.write(snapshot, before.users, before.courses, before.generation);
+        FileTime now = FileTime.fromMillis(System.currentTimeMillis() + 60_000);
+        Files.setLastModifiedTime(snapshot, now);
+
+        JsonDatabaseManager reopened = new JsonDatabaseManager(dir);
+        assertNotNull(reopened.findUserById("USR902"));
+        reopened.shutdown();
+    }
+
+    @Test
+    void currentSnapshotIsPreferredAndVersionsKeepIncreasing() throws IOException {
+        JsonDatabaseManager db = new JsonDatabaseManager(dir);
+        db.addUser(new Student("USR901", "a", "a@example.com", "h"));
+        db.checkpoint();
+        long generation = BinarySnapshot.readGeneration(dir.resolve("snapshot.bin"));
+        db.shutdown();
+
+        // Only the binary snapshot holds USR909, so finding it proves it was read
+        BinarySnapshot.Contents contents = BinarySnapshot.read(dir.resolve("snapshot.bin"));
+        List<User> users = new ArrayList<>(contents.users);
+        users.add(new Student("USR909", "z", "z@example.com", "h"));
+        BinarySnapshot.write(dir.resolve("snapshot.bin"), users, contents.courses, generation);
+
+        JsonDatabaseManager reopened = new JsonDatabaseManager(dir);
+        assertNotNull(reopened.findUserById("USR909"));
+        reopened.addUser(new Student("USR910", "y", "y@example.com", "h"));
+        reopened.checkpoint();
+        assertTrue(BinarySnapshot.readGeneration(dir.resolve("snapshot.bin")) > generation);
+        reopened.shutdown();
+    }
+}
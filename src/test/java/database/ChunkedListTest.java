@@ -0,0 +1,50 @@
+package database;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChunkedListTest {
+    private static final int SIZE = ChunkedList.CHUNK_SIZE * 3 + 7;
+
+    private static List<Integer> numbers(int n) {
+        List<Integer> list = new ArrayList<>();
+        for (int i = 0; i < n; i++) list.add(i);
+        return list;
+    }
+
+    @Test
+    void derivedListsMatchAnArrayListAndLeaveTheOriginalAlone() {
+        List<Integer> expected = numbers(SIZE);
+        ChunkedList<Integer> original = ChunkedList.copyOf(expected);
+        ChunkedList<Integer> list = original;
+
+        list = list.with(ChunkedList.CHUNK_SIZE, -1);
+        expected.set(ChunkedList.CHUNK_SIZE, -1);
+        for (int i = 0; i < ChunkedList.CHUNK_SIZE + 2; i++) {
+            list = list.plus(1000 + i);
+            expected.add(1000 + i);
+        }
+        for (int index : new int[]{SIZE - 1, 5, ChunkedList.CHUNK_SIZE * 2, 0}) {
+            list = list.without(index);
+            expected.remove(index);
+        }
+
+        assertEquals(expected, list);
+        assertEquals(numbers(SIZE), original);
+        assertThrows(UnsupportedOperationException.class, () -> original.add(1));
+    }
+
+    @Test
+    void growsFromEmptyAndShrinksToEmpty() {
+        ChunkedList<String> list = ChunkedList.empty();
+        for (int i = 0; i < ChunkedList.CHUNK_SIZE + 1; i++) list = list.plus("x" + i);
+        assertEquals("x" + ChunkedList.CHUNK_SIZE, list.get(ChunkedList.CHUNK_SIZE));
+        while (!list.isEmpty()) list = list.without(list.size() - 1);
+        assertEquals(List.of(), list);
+        assertEquals(List.of("y"), list.plus("y"));
+    }
+}
@@ -0,0 +1,246 @@
+package database;
+
+import model.Course;
+import model.Lesson;
+import model.Student;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JsonDatabaseManagerTest {
+    @TempDir
+    Path dir;
+
+    private JsonDatabaseManager db;
+
+    @BeforeEach
+    void open() {
+        System.setProperty("skillforge.wal", "false");
+        System.setProperty("skillforge.async", "false");
+        db = new JsonDatabaseManager(dir);
+    }
+
+    @AfterEach
+    void close() {
+        db.shutdown();
+        System.clearProperty("skillforge.wal");
+        System.clearProperty("skillforge.async");
+    }
+
+    @Test
+    void everyWritePublishesTheNextSnapshot() {
+        DataSnapshot before = db.getSnapshot();
+        db.addUser(new Student("USR900", "a", "a@example.com", "h"));
+        DataSnapshot afterUser = db.getSnapshot();
+
+        assertEquals(before.getVersion() + 1, afterUser.getVersion());
+        assertEquals(before.getUsers().size() + 1, afterUser.getUsers().size());
+        assertSame(before.getCourses(), afterUser.getCourses());
+        assertSame(afterUser, db.getSnapshot());
+
+        db.addCourse(new Course("CRS900", "Java", "Basics", "USR002"));
+        DataSnapshot afterCourse = db.getSnapshot();
+        assertSame(afterUser.getUsers(), afterCourse.getUsers());
+        assertEquals(afterUser.getCourses().size() + 1, afterCourse.getCourses().size());
+        assertNull(afterUser.getCourses().stream().filter(c -> c.getCourseId().equals("CRS900")).findAny().orElse(null));
+    }
+
+    @Test
+    void replacingAndDeletingKeepsTheRestInPlace() {
+        for (int i = 0; i < 3; i++) {
+            db.addCourse(new Course("CRS90" + i, "Course " + i, "", "USR002"));
+        }
+        db.deleteCourse("CRS900");
+        Course replacement = new Course("CRS902", "Renamed", "", "USR002");
+        db.updateCourse(replacement);
+
+        List<Course> courses = db.getAllCourses();
+        int last = courses.size() - 1;
+        assertEquals("CRS901", courses.get(last - 1).getCourseId());
+        assertSame(replacement, courses.get(last));
+        assertSame(replacement, db.findCourseById("CRS902"));
+        assertNull(db.findCourseById("CRS900"));
+    }
+
+    @Test
+    void pagesOfASortedQueryJoinUpToTheFullOrder() {
+        for (int i = 0; i < 23; i++) {
+            db.addCourse(new Course(String.format("CRS9%02d", i), "Course " + (i % 4), "", "USR002"));
+        }
+        Predicate<Course> mine = c -> c.getCourseId().startsWith("CRS9");
+        Comparator<Course> byTitle = Comparator.comparing(Course::getTitle);
+        List<Course> expected = db.getAllCourses().stream().filter(mine).sorted(byTitle).toList();
+
+        for (Comparator<Course> order : Arrays.asList(byTitle, null)) {
+            List<Course> joined = new ArrayList<>();
+            for (int offset = 0; offset < 30; offset += 5) {
+                QueryPage<Course> page = db.queryCourses(null, mine, order, offset, 5);
+                assertEquals(23, page.getTotal());
+                joined.addAll(page.getRows());
+            }
+            assertEquals(order == null ? db.getAllCourses().stream().filter(mine).toList() : expected, joined);
+        }
+        assertEquals(List.of(), db.queryCourses(null, mine, byTitle, 23, 5).getRows());
+    }
+
+    @Test
+    void concurrentAddsForOneEmailStoreOneUser() throws Exception {
+        int threads = 8;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> results = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            Student student = new Student("USR9" + (10 + i), "s" + i, i % 2 == 0 ? "dup@example.com" : "DUP@example.com", "h");
+            results.add(pool.submit(() -> {
+                start.await();
+                return db.addUser(student);
+            }));
+        }
+        start.countDown();
+        int added = 0;
+        for (Future<Boolean> result : results) {
+            if (result.get()) added++;
+        }
+        pool.shutdown();
+
+        assertEquals(1, added);
+        assertEquals(1, db.getSnapshot().getUsers().stream()
+                .filter(u -> u.getEmail().equalsIgnoreCase("dup@example.com")).count());
+    }
+
+    // users.json becomes a non-empty directory, so the atomic rename of the
+    // next users snapshot fails and the commit has to roll back
+    private void breakUsersFile() throws IOException {
+        Path users = dir.resolve("users.json");
+        Files.delete(users);
+        Files.createDirectories(users.resolve("blocker"));
+    }
+
+    @Test
+    void failedCommitRestoresStoredAndCallerEntities() throws IOException {
+        Student student = new Student("USR900", "a", "a@example.com", "h");
+        Course course = new Course("CRS900", "Java", "Basics", "USR002");
+        db.addUser(student);
+        db.addCourse(course);
+        breakUsersFile();
+
+        Transaction tx = db.beginTransaction().stageUser(student).stageCourse(course);
+        student.enrollInCourse("CRS900");
+        course.addStudent("USR900");
+        student.setEmail("changed@example.com");
+        assertThrows(TransactionException.class, tx::commit);
+
+        assertSame(student, db.findUserById("USR900"));
+        assertSame(course, db.findCourseById("CRS900"));
+        assertEquals(List.of(), student.getEnrolledCourses());
+        assertEquals(List.of(), course.getStudents());
+        assertEquals("a@example.com", student.getEmail());
+        assertSame(student, db.findUserByEmail("a@example.com"));
+        assertNull(db.findUserByEmail("changed@example.com"));
+        assertTrue(db.getEnrolledCourses("USR900").isEmpty());
+    }
+
+    @Test
+    void failedCommitRestoresADetachedCallerCopy() throws IOException {
+        Student stored = new Student("USR900", "a", "a@example.com", "h");
+        db.addUser(stored);
+        Student copy = (Student) db.copyOfStoredUser("USR900");
+        breakUsersFile();
+
+        Transaction tx = db.beginTransaction().stageUser(copy);
+        copy.enrollInCourse("CRS900");
+        assertThrows(TransactionException.class, tx::commit);
+
+        assertSame(stored, db.findUserById("USR900"));
+        assertEquals(List.of(), stored.getEnrolledCourses());
+        assertEquals(List.of(), copy.getEnrolledCourses());
+        copy.enrollInCourse("CRS901");
+        assertEquals(List.of(), stored.getEnrolledCourses(), "restored objects must not share lists");
+    }
+
+    @Test
+    void failedCommitRemovesNewAndRestoresDeletedEntities() throws IOException {
+        Course doomed = new Course("CRS900", "Java", "Basics", "USR002");
+        db.addCourse(doomed);
+        breakUsersFile();
+
+        Transaction tx = db.beginTransaction()
+                .stageUser(new Student("USR901", "n", "n@example.com", "h"))
+                .deleteCourse("CRS900");
+        assertThrows(TransactionException.class, tx::commit);
+
+        assertNull(db.findUserById("USR901"));
+        assertNull(db.findUserByEmail("n@example.com"));
+        assertSame(doomed, db.findCourseById("CRS900"));
+        assertTrue(db.getSnapshot().getCourses().contains(doomed));
+    }
+
+    @Test
+    void rollbackUndoesInPlaceEdits() {
+        Student student = new Student("USR900", "a", "a@example.com", "h");
+        db.addUser(student);
+
+        Transaction tx = db.beginTransaction().stageUser(student);
+        student.enrollInCourse("CRS900");
+        tx.rollback();
+
+        assertSame(student, db.findUserById("USR900"));
+        assertEquals(List.of(), student.getEnrolledCourses());
+    }
+
+    @Test
+    void rollbackUndoesProgressWithoutTouchingLessons() {
+        Student student = new Student("USR900", "a", "a@example.com", "h");
+        student.enrollInCourse("CRS900");
+        Course course = new Course("CRS900", "Java", "Basics", "USR002");
+        Lesson lesson = new Lesson("LSN900", "Intro", "Body");
+        course.addLesson(lesson);
+        db.addUser(student);
+        db.addCourse(course);
+
+        Transaction tx = db.beginTransaction().stageUser(student).stageCourse(course);
+        student.markLessonComplete("CRS900", "LSN900");
+        course.addStudent("USR900");
+        tx.rollback();
+
+        assertFalse(student.hasCompletedLesson("CRS900", "LSN900"));
+        assertEquals(List.of(), course.getStudents());
+        assertSame(lesson, course.getLessons().get(0));
+    }
+
+    @Test
+    void snapshotFilesLeaveOutEditsThatWereNotWritten() {
+        Student student = new Student("USR900", "a", "a@example.com", "h");
+        Course course = new Course("CRS900", "Java", "Basics", "USR002");
+        course.addLesson(new Lesson("LSN900", "Intro", "Body"));
+        db.addUser(student);
+        db.addCourse(course);
+
+        // Edits in progress on other threads look like this until their write
+        student.setEmail("half-done@example.com");
+        course.getLessons().get(0).setTitle("Half done");
+        db.saveUsers();
+        db.saveCourses();
+        db.shutdown();
+
+        db = new JsonDatabaseManager(dir);
+        assertEquals("a@example.com", db.findUserById("USR900").getEmail());
+        assertEquals("Intro", db.findCourseById("CRS900").getLessons().get(0).getTitle());
+    }
+}
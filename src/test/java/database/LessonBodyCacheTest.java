@@ -0,0 +1,123 @@
+package database;
+
+import com.google.gson.Gson;
+import model.Course;
+import model.Lesson;
+import model.LessonBodySource;
+import model.Question;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LessonBodyCacheTest {
+    @TempDir
+    Path dir;
+
+    private final Gson gson = JsonDatabaseManager.createGson();
+
+    @BeforeEach
+    void configure() {
+        System.setProperty("skillforge.wal", "false");
+        System.setProperty("skillforge.async", "false");
+        System.setProperty("skillforge.mappedCatalog", "true");
+    }
+
+    @AfterEach
+    void reset() {
+        System.clearProperty("skillforge.wal");
+        System.clearProperty("skillforge.async");
+        System.clearProperty("skillforge.mappedCatalog");
+    }
+
+    private static class CountingSource implements LessonBodySource {
+        private final LessonBodySource source;
+        int loads;
+
+        CountingSource(LessonBodySource source) {
+            this.source = source;
+        }
+
+        @Override
+        public String loadContent(String lessonId) {
+            loads++;
+            return source.loadContent(lessonId);
+        }
+
+        @Override
+        public List<String> loadResources(String lessonId) {
+            loads++;
+            return source.loadResources(lessonId);
+        }
+
+        @Override
+        public List<Question> loadQuestions(String lessonId) {
+            return source.loadQuestions(lessonId);
+        }
+    }
+
+    @Test
+    void serializingLeavesCacheAndLessonsUntouched() throws IOException {
+        Course course = new Course("CRS001", "Java", "Basics", "USR002");
+        course.setCreatedAt(LocalDateTime.of(2025, 1, 1, 0, 0));
+        for (int i = 1; i <= 3; i++) {
+            Lesson lesson = new Lesson("LSN00" + i, "Lesson " + i, "Body " + i);
+            lesson.addResource("https://example.com/" + i);
+            course.addLesson(lesson);
+        }
+        String expected = gson.toJson(course);
+
+        Path file = dir.resolve("catalog.bin");
+        MappedCourseCatalog.write(file, List.of(course), 1);
+        try (MappedCourseCatalog catalog = MappedCourseCatalog.open(file)) {
+            CountingSource counting = new CountingSource(catalog);
+            LessonBodyCache cache = new LessonBodyCache(counting, 1);
+            for (Lesson l : course.getLessons()) l.detachBody(cache);
+
+            assertEquals("Body 2", cache.getBody("LSN002").getContent());
+            assertEquals(expected, gson.toJson(course));
+            BinarySnapshot.write(dir.resolve("snapshot.bin"), List.of(), List.of(course), 1);
+            MappedCourseCatalog.write(dir.resolve("catalog2.bin"), List.of(course), 1);
+            assertEquals(expected, gson.toJson(BinarySnapshot.read(dir.resolve("snapshot.bin")).courses.get(0)));
+
+            // The opened lesson is still cached and nothing was kept on the lessons
+            counting.loads = 0;
+            assertEquals("Body 2", cache.getBody("LSN002").getContent());
+            assertEquals(0, counting.loads);
+            for (Lesson l : course.getLessons()) assertFalse(l.isBodyLoaded());
+            assertThrows(UnsupportedOperationException.class,
+                    () -> course.getLessons().get(0).viewResources().add("x"));
+        }
+    }
+
+    @Test
+    void catalogIsRebuiltOnlyWhenCoursesChanged() throws IOException {
+        Path catalogPath = dir.resolve("catalog.bin");
+        new JsonDatabaseManager(dir).shutdown();
+        long generation = MappedCourseCatalog.readGeneration(catalogPath);
+        FileTime stamp = FileTime.fromMillis(0);
+        Files.setLastModifiedTime(catalogPath, stamp);
+
+        JsonDatabaseManager db = new JsonDatabaseManager(dir);
+        assertEquals(stamp, Files.getLastModifiedTime(catalogPath));
+        Course course = new Course("CRS901", "Go", "Basics", "USR002");
+        course.addLesson(new Lesson("LSN901", "Intro", "Go body"));
+        db.addCourse(course);
+        db.shutdown();
+        assertEquals(stamp, Files.getLastModifiedTime(catalogPath));
+
+        JsonDatabaseManager reopened = new JsonDatabaseManager(dir);
+        assertTrue(MappedCourseCatalog.readGeneration(catalogPath) > generation);
+        assertEquals("Go body", reopened.getLessonBody("CRS901", "LSN901").getContent());
+        reopened.shutdown();
+    }
+}
@@ -0,0 +1,107 @@
+package database;
+
+import model.QuizAttempt;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QuizAttemptLogTest {
+    @TempDir
+    Path dir;
+
+    private static QuizAttempt attempt(String lessonId, int score) {
+        QuizAttempt attempt = new QuizAttempt(lessonId, "CRS1", score, score >= 50);
+        attempt.setAttemptDate(LocalDateTime.of(2025, 3, 1, 12, 0));
+        return attempt;
+    }
+
+    private Path writeTwoAttempts() throws IOException {
+        Path file = dir.resolve("quiz-attempts.log");
+        try (QuizAttemptLog log = QuizAttemptLog.open(file)) {
+            log.append("USR1", attempt("LSN1", 80));
+            log.append("USR2", attempt("LSN2", 30));
+        }
+        return file;
+    }
+
+    @Test
+    void attemptsSurviveReopen() throws IOException {
+        Path file = writeTwoAttempts();
+
+        try (QuizAttemptLog log = QuizAttemptLog.open(file)) {
+            assertEquals(2, log.size());
+            List<QuizAttempt> first = log.findByStudent("USR1");
+            assertEquals(1, first.size());
+            assertEquals("LSN1", first.get(0).getLessonId());
+            assertEquals(80, first.get(0).getScore());
+            assertTrue(first.get(0).isPassed());
+            assertEquals(LocalDateTime.of(2025, 3, 1, 12, 0), first.get(0).getAttemptDate());
+            assertEquals(2, log.findByCourse("CRS1").size());
+            assertEquals(1, log.findByLesson("CRS1", "LSN2").size());
+        }
+    }
+
+    @Test
+    void tornTailIsCutAndAppendsContinue() throws IOException {
+        Path file = writeTwoAttempts();
+        long goodSize = Files.size(file);
+        Files.write(file, new byte[]{'A', 0, 0}, StandardOpenOption.APPEND);
+
+        try (QuizAttemptLog log = QuizAttemptLog.open(file)) {
+            assertEquals(2, log.size());
+            assertEquals(goodSize, Files.size(file));
+            log.append("USR1", attempt("LSN3", 90));
+        }
+        try (QuizAttemptLog log = QuizAttemptLog.open(file)) {
+            assertEquals(3, log.size());
+            assertEquals(2, log.findByStudent("USR1").size());
+        }
+        assertFalse(Files.exists(dir.resolve("quiz-attempts.log.corrupt")));
+    }
+
+    @Test
+    void recordsAfterCorruptionAreKeptAside() throws IOException {
+        Path file = writeTwoAttempts();
+        long goodSize = Files.size(file);
+        byte[] rest = {'Z', 1, 2, 3, 4, 5, 6, 7};
+        Files.write(file, rest, StandardOpenOption.APPEND);
+
+        try (QuizAttemptLog log = QuizAttemptLog.open(file)) {
+            assertEquals(2, log.size());
+        }
+        assertEquals(goodSize, Files.size(file));
+        assertArrayEquals(rest, Files.readAllBytes(dir.resolve("quiz-attempts.log.corrupt")));
+    }
+
+    @Test
+    void attemptWithANegativeCodeIsTreatedAsCorrupt() throws IOException {
+        Path file = writeTwoAttempts();
+        long goodSize = Files.size(file);
+        try (OutputStream out = Files.newOutputStream(file, StandardOpenOption.APPEND)) {
+            DataOutputStream data = new DataOutputStream(out);
+            data.writeByte('A');
+            data.writeInt(-1);
+            data.writeInt(0);
+            data.writeInt(0);
+            data.writeByte(90);
+            data.writeByte(1);
+            data.writeLong(0);
+        }
+
+        try (QuizAttemptLog log = QuizAttemptLog.open(file)) {
+            assertEquals(2, log.size());
+        }
+        assertEquals(goodSize, Files.size(file));
+        assertTrue(Files.exists(dir.resolve("quiz-attempts.log.corrupt")));
+    }
+}
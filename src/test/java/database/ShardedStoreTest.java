@@ -0,0 +1,83 @@
+package database;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShardedStoreTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void sequentialIdsSpreadEvenly() {
+        Map<String, Integer> counts = new HashMap<>();
+        for (int i = 1; i <= 10_000; i++) {
+            counts.merge(ShardedStore.shardOf("USR" + i), 1, Integer::sum);
+        }
+        assertEquals(100, counts.size());
+        counts.values().forEach(n -> assertEquals(100, n));
+    }
+
+    @Test
+    void smallIdsDoNotShareOneShard() {
+        assertEquals("01", ShardedStore.shardOf("USR001"));
+        assertEquals("34", ShardedStore.shardOf("USR1234"));
+        assertNotEquals(ShardedStore.shardOf("USR100"), ShardedStore.shardOf("USR101"));
+    }
+
+    @Test
+    void idsWithoutTrailingDigitsHashIntoRange() {
+        for (String id : List.of("admin", "X", "USR1a", "")) {
+            int shard = Integer.parseInt(ShardedStore.shardOf(id));
+            assertTrue(shard >= 0 && shard < 100, id);
+            assertEquals(2, ShardedStore.shardOf(id).length());
+        }
+    }
+
+    @Test
+    void saveLoadAndLoadAllRoundTrip() throws IOException {
+        ShardedStore<String> store = new ShardedStore<>(dir, ShardedStoreTest::readAll,
+                (target, value) -> Files.writeString(target, value, StandardCharsets.UTF_8));
+        store.save("USR1", "one");
+        store.save("USR250", "two");
+
+        assertEquals(dir.resolve("01").resolve("USR1.json"), store.pathFor("USR1"));
+        assertEquals(List.of("USR1", "USR250"), store.listIds());
+        assertEquals(List.of("one", "two"), store.loadAll());
+        assertEquals("two", store.load("USR250"));
+        store.delete("USR1");
+        assertNull(store.load("USR1"));
+    }
+
+    @Test
+    void filesFromAnOlderLayoutAreMovedIntoTheirShard() throws IOException {
+        ShardedStore<String> store = new ShardedStore<>(dir, ShardedStoreTest::readAll,
+                (target, value) -> Files.writeString(target, value, StandardCharsets.UTF_8));
+        store.save("USR12", "current");
+        Files.createDirectories(dir.resolve("1"));
+        Files.writeString(dir.resolve("1").resolve("USR12.json"), "stale");
+        Files.writeString(dir.resolve("1").resolve("USR13.json"), "moved");
+
+        assertEquals(List.of("current", "moved"), store.loadAll());
+        assertFalse(Files.exists(dir.resolve("1").resolve("USR12.json")));
+        assertEquals("moved", store.load("USR13"));
+        assertEquals(List.of("USR12", "USR13"), store.listIds());
+    }
+
+    private static String readAll(Reader in) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        char[] buf = new char[64];
+        for (int n; (n = in.read(buf)) > 0; ) sb.append(buf, 0, n);
+        return sb.toString();
+    }
+}
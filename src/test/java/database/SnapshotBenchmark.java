@@ -0,0 +1,111 @@
+package database;
+
+import model.*;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.LocalDateTime;
+import java.util.*;
+
+// Compares loading the JSON files against the binary snapshot on a synthetic
+// dataset. It lives with the tests so it stays out of the application jar;
+// after mvn test-compile run it with a large heap, e.g.:
+//   java -Xmx4g -cp target/test-classes:target/classes:<gson.jar> database.SnapshotBenchmark 500000 2000 3
+public class SnapshotBenchmark {
+    public static void main(String[] args) throws IOException {
+        int userCount = args.length > 0 ? Integer.parseInt(args[0]) : 500_000;
+        int courseCount = args.length > 1 ? Integer.parseInt(args[1]) : 2_000;
+        int rounds = args.length > 2 ? Integer.parseInt(args[2]) : 3;
+
+        Path dir = Files.createTempDirectory("skillforge-bench");
+        Path usersJson = dir.resolve("users.json");
+        Path coursesJson = dir.resolve("courses.json");
+        Path snapshot = dir.resolve("snapshot.bin");
+        JsonStreamCodec codec = new JsonStreamCodec(JsonDatabaseManager.createGson(), false);
+
+        List<Course> courses = generateCourses(courseCount);
+        List<User> users = generateUsers(userCount, courses);
+        codec.writeUsers(usersJson, users, 1);
+        codec.writeCourses(coursesJson, courses, 1);
+        BinarySnapshot.write(snapshot, users, courses, 1);
+        System.out.printf("Dataset: %,d users, %,d courses%n", userCount, courseCount);
+        System.out.printf("  JSON   %,12d bytes%n", Files.size(usersJson) + Files.size(coursesJson));
+        System.out.printf("  binary %,12d bytes%n", Files.size(snapshot));
+        users = null;
+        courses = null;
+
+        for (int r = 1; r <= rounds; r++) {
+            long jsonMs = time(() -> {
+                try (Reader u = Files.newBufferedReader(usersJson, StandardCharsets.UTF_8);
+                     Reader c = Files.newBufferedReader(coursesJson, StandardCharsets.UTF_8)) {
+                    return codec.readUsers(u).size() + codec.readCourses(c).size();
+                }
+            });
+            long binaryMs = time(() -> {
+                BinarySnapshot.Contents contents = BinarySnapshot.read(snapshot);
+                return contents.users.size() + contents.courses.size();
+            });
+            System.out.printf("Round %d: JSON %,d ms, binary %,d ms (%.1fx)%n",
+                    r, jsonMs, binaryMs, binaryMs == 0 ? 0.0 : (double) jsonMs / binaryMs);
+        }
+
+        for (Path p : List.of(usersJson, coursesJson, snapshot, dir)) {
+            Files.deleteIfExists(p);
+        }
+    }
+
+    private interface Load {
+        int run() throws IOException;
+    }
+
+    private static long time(Load load) throws IOException {
+        System.gc();
+        long start = System.nanoTime();
+        int loaded = load.run();
+        long ms = (System.nanoTime() - start) / 1_000_000;
+        if (loaded == 0) System.out.println("(nothing loaded)");
+        return ms;
+    }
+
+    private static List<Course> generateCourses(int count) {
+        List<Course> courses = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            Course c = new Course("CRS" + i, "Course " + i, "Description of course " + i, "USR1");
+            c.setApprovalStatus(ApprovalStatus.APPROVED);
+            for (int l = 1; l <= 5; l++) {
+                Lesson lesson = new Lesson("LSN" + i + "_" + l, "Lesson " + l, "Lesson body ".repeat(40));
+                Quiz quiz = new Quiz("QZ" + i + "_" + l, new ArrayList<>(), 50);
+                quiz.addQuestion(new Question("Q" + i + "_" + l, "Question?",
+                        List.of("A", "B", "C", "D"), 0));
+                lesson.setQuiz(quiz);
+                c.addLesson(lesson);
+            }
+            courses.add(c);
+        }
+        return courses;
+    }
+
+    private static List<User> generateUsers(int count, List<Course> courses) {
+        Random random = new Random(42);
+        List<User> users = new ArrayList<>(count);
+        LocalDateTime base = LocalDateTime.of(2025, 1, 1, 0, 0);
+        for (int i = 1; i <= count; i++) {
+            Student s = new Student("USR" + i, "student" + i, "student" + i + "@example.com",
+                    "5e884898da28047d9171547579908cb2c04e75508e5bbdf4db8577eb2c6e8e2d");
+            s.setCreatedAt(base.plusMinutes(i));
+            for (int e = 0; e < 3; e++) {
+                Course c = courses.get(random.nextInt(courses.size()));
+                s.enrollInCourse(c.getCourseId());
+                Lesson first = c.getLessons().get(0);
+                s.markLessonComplete(c.getCourseId(), first.getLessonId());
+                QuizAttempt attempt = new QuizAttempt(first.getLessonId(), c.getCourseId(), 80, true);
+                attempt.setAttemptDate(base.plusMinutes(i + e));
+                s.addQuizAttempt(attempt);
+            }
+            users.add(s);
+        }
+        return users;
+    }
+}
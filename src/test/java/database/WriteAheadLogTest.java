@@ -0,0 +1,122 @@
+package database;
+
+import com.google.gson.JsonPrimitive;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WriteAheadLogTest {
+    @TempDir
+    Path dir;
+
+    private static List<String> replayIds(WriteAheadLog wal) throws IOException {
+        List<String> ids = new ArrayList<>();
+        wal.replay(r -> ids.add(r.getId()));
+        return ids;
+    }
+
+    private static WriteAheadLog open(Path file) {
+        return new WriteAheadLog(file, 1, 0);
+    }
+
+    @Test
+    void appendAfterTornOnlyLineIsReplayed() throws IOException {
+        Path file = dir.resolve("journal.wal");
+        Files.writeString(file, "{\"op\":\"USER_UPSERT\",\"id\":\"USR1\",\"da");
+
+        WriteAheadLog wal = open(file);
+        assertEquals(List.of(), replayIds(wal));
+        wal.append(WriteAheadLog.USER_UPSERT, "USR2", new JsonPrimitive("x"));
+        wal.close();
+
+        assertEquals(List.of("USR2"), replayIds(open(file)));
+    }
+
+    @Test
+    void tornTailIsCutAfterGoodRecords() throws IOException {
+        Path file = dir.resolve("journal.wal");
+        WriteAheadLog wal = open(file);
+        wal.append(WriteAheadLog.USER_UPSERT, "USR1", new JsonPrimitive("a"));
+        wal.close();
+        long goodSize = Files.size(file);
+        Files.writeString(file, "{\"op\":\"USER_UP", StandardOpenOption.APPEND);
+
+        wal = open(file);
+        assertEquals(List.of("USR1"), replayIds(wal));
+        assertEquals(goodSize, Files.size(file));
+        wal.append(WriteAheadLog.COURSE_DELETE, "CRS1", null);
+        wal.close();
+
+        assertEquals(List.of("USR1", "CRS1"), replayIds(open(file)));
+        assertFalse(Files.exists(dir.resolve("journal.wal.corrupt")));
+    }
+
+    @Test
+    void linesAfterACorruptLineAreKeptAside() throws IOException {
+        Path file = dir.resolve("journal.wal");
+        String good = "{\"op\":\"USER_UPSERT\",\"id\":\"USR1\"}\n";
+        String after = "{\"op\":\"USER_UPSERT\",\"id\":\"USR3\"}\n";
+        Files.writeString(file, good + "not json\n" + after);
+
+        assertEquals(List.of("USR1"), replayIds(open(file)));
+        assertEquals(good, Files.readString(file));
+        assertEquals("not json\n" + after, Files.readString(dir.resolve("journal.wal.corrupt")));
+    }
+
+    @Test
+    void batchIsReplayedAsItsRecords() throws IOException {
+        Path file = dir.resolve("journal.wal");
+        WriteAheadLog wal = open(file);
+        wal.appendAll(List.of(
+                new WriteAheadLog.Record(WriteAheadLog.USER_UPSERT, "USR1", new JsonPrimitive("a")),
+                new WriteAheadLog.Record(WriteAheadLog.COURSE_UPSERT, "CRS1", new JsonPrimitive("b"))), true);
+        wal.close();
+
+        assertEquals(1, Files.readAllLines(file, StandardCharsets.UTF_8).size());
+        assertEquals(List.of("USR1", "CRS1"), replayIds(open(file)));
+    }
+
+    @Test
+    void idleLogIsSyncedAfterTheInterval() throws Exception {
+        WriteAheadLog wal = new WriteAheadLog(dir.resolve("journal.wal"), 100, 50);
+        wal.append(WriteAheadLog.USER_UPSERT, "USR1", new JsonPrimitive("a"));
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (wal.getUnsyncedCount() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, wal.getUnsyncedCount());
+        wal.close();
+    }
+
+    @Test
+    void replayStopsAtADamagedSealedSegment() throws IOException {
+        Path file = dir.resolve("journal.wal");
+        String good = "{\"op\":\"USER_UPSERT\",\"id\":\"USR1\"}\n";
+        Files.writeString(dir.resolve("journal.wal.1"), good + "not json\n");
+        String current = "{\"op\":\"USER_UPSERT\",\"id\":\"USR2\"}\n";
+        Files.writeString(file, current);
+
+        assertEquals(List.of("USR1"), replayIds(open(file)));
+        assertFalse(Files.exists(file));
+        assertEquals(current, Files.readString(dir.resolve("journal.wal.skipped")));
+    }
+
+    @Test
+    void tornTailOfSealedSegmentStillReplaysCurrentOne() throws IOException {
+        Path file = dir.resolve("journal.wal");
+        String good = "{\"op\":\"USER_UPSERT\",\"id\":\"USR1\"}\n";
+        Files.writeString(dir.resolve("journal.wal.1"), good + "{\"op\":\"USER_UP");
+        Files.writeString(file, "{\"op\":\"USER_UPSERT\",\"id\":\"USR2\"}\n");
+
+        assertEquals(List.of("USR1", "USR2"), replayIds(open(file)));
+    }
+}
@@ -0,0 +1,59 @@
+package server;
+
+import org.junit.jupiter.api.Test;
+import server.RequestExecutor.Operation;
+
+import java.util.Map;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeFalse;
+
+class RequestExecutorTest {
+    @Test
+    void overflowIsRefusedInsteadOfQueued() throws Exception {
+        RequestExecutor requests = new RequestExecutor(16, 0, Map.of(), 1, 1);
+        assumeFalse(requests.isUsingVirtualThreads(), "only the fallback pool has a queue");
+        try {
+            CountDownLatch release = new CountDownLatch(1);
+            CountDownLatch started = new CountDownLatch(1);
+            requests.execute(() -> {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            CompletableFuture<String> queued = new CompletableFuture<>();
+            requests.execute(() -> attempt(requests, queued));
+            assertEquals(1, requests.getMetrics().getQueueDepth());
+
+            CompletableFuture<String> overflow = new CompletableFuture<>();
+            requests.execute(() -> attempt(requests, overflow));
+            assertEquals("rejected", overflow.get(5, TimeUnit.SECONDS));
+
+            release.countDown();
+            assertEquals("ran", queued.get(5, TimeUnit.SECONDS));
+            RequestExecutor.Metrics m = requests.getMetrics();
+            assertEquals(1, m.getQueueCapacity());
+            assertEquals(1, m.getMaxQueueDepth());
+            assertEquals(1, m.getQueueRejected());
+            assertEquals(1, m.getRejected(Operation.READ));
+        } finally {
+            requests.shutdown();
+        }
+    }
+
+    private static void attempt(RequestExecutor requests, CompletableFuture<String> result) {
+        try {
+            result.complete(requests.call(Operation.READ, () -> "ran"));
+        } catch (RejectedExecutionException e) {
+            result.complete("rejected");
+        } catch (Exception e) {
+            result.completeExceptionally(e);
+        }
+    }
+}